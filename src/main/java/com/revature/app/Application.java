@@ -2,13 +2,21 @@ package com.revature.app;
 
 import java.sql.SQLException;
 
+import org.eclipse.jetty.server.Server;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.revature.controller.*;
+import com.revature.dao.SchemaManager;
+import com.revature.dao.StoreFactory;
 
 import io.javalin.Javalin;
 import com.revature.exceptions.*;
+import com.revature.util.ConfigUtil;
+import com.revature.util.ConnectionConfig;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DbExecutor;
+import com.revature.util.VirtualThreads;
 
 
 public class Application {
@@ -18,7 +26,23 @@ public class Application {
 
 	public static void main(String[] args) throws couldNotConnectToDatabaseException, ClientNotFoundException, ClientAlreadyExistsException, SQLException {
 		
-		app = Javalin.create();
+		//reads the db settings and registers the driver once before anything connects, the in-memory engines never connect
+		if(StoreFactory.getEngine().equals(StoreFactory.MARIADB)) {
+			ConnectionUtil.bootstrap(ConnectionConfig.fromEnvironment());
+			//creates or upgrades the tables in place, db_seed adds the sample data to empty ones
+			SchemaManager.prepare(ConfigUtil.getBoolean("db_seed", false));
+		}
+
+		//virtual_threads serves every request on a virtual thread of its own (Java 21 and up), the default is Jetty's own pool
+		if(VirtualThreads.isEnabled()) {
+			logger.info("Serving requests on virtual threads");
+			app = Javalin.create(config -> config.server(() -> new Server(new VirtualThreadPool())));
+		} else {
+			if(ConfigUtil.getBoolean("virtual_threads", false)) {
+				logger.warn("virtual_threads is set but Java " + System.getProperty("java.version") + " doesn't have them, using platform threads");
+			}
+			app = Javalin.create();
+		}
 
 		app.before(ctx -> {
 			String URI = ctx.req.getRequestURI();
@@ -30,7 +54,15 @@ public class Application {
 		//The reason this is done this way is so that the Account Controller gets made after
 		//any control of the clients because the client table must exist for the account
 		//table to work
-		mapControllers(clientController, new ProjExceptionHandler(), new AccountController(clientController.getRepo()));
+		AccountController accountController = new AccountController(clientController.getRepo());
+		mapControllers(clientController, new ProjExceptionHandler(), accountController, new AdminController(accountController.getAccountService()));
+
+		//one hook so the executor drains, then the stores sync, then the pool closes, separate hooks all run at once
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			DbExecutor.shutdown();
+			StoreFactory.closeStores();
+			ConnectionUtil.closePool();
+		}));
 
 		app.start(7000);
 		
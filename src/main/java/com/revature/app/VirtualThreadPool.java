@@ -0,0 +1,119 @@
+package com.revature.app;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPoolBudget;
+
+import com.revature.util.VirtualThreads;
+
+//Jetty thread pool that runs requests on virtual threads and the acceptor and selector loops on platform threads
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool.SizedThreadPool {
+
+	//Jetty leases threads for the acceptors and selectors just before the same thread starts their loops
+	private final ThreadLocal<int[]> leasedLoops = ThreadLocal.withInitial(() -> new int[1]);
+	private final ThreadPoolBudget budget = new ThreadPoolBudget(this) {
+		@Override
+		public ThreadPoolBudget.Lease leaseTo(Object leasee, int threads) {
+			leasedLoops.get()[0] += threads;
+			return super.leaseTo(leasee, threads);
+		}
+	};
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger loopThreads = new AtomicInteger();
+	private volatile ExecutorService loops;
+	private volatile ExecutorService executor;
+
+	@Override
+	protected void doStart() throws Exception {
+		loops = Executors.newCachedThreadPool(task -> new Thread(task, "jetty-loop-" + loopThreads.incrementAndGet()));
+		executor = VirtualThreads.newThreadPerTaskExecutor("jetty-virtual-");
+		super.doStart();
+	}
+
+	@Override
+	protected void doStop() throws Exception {
+		executor.shutdown();
+		loops.shutdown();
+		super.doStop();
+	}
+
+	//Not a TryExecutor, so the selector thread keeps its loop and sends the requests here
+	@Override
+	public void execute(Runnable task) {
+		if(executor == null) {
+			throw new RejectedExecutionException("The virtual thread pool hasn't been started");
+		}
+		int[] leased = leasedLoops.get();
+		if(leased[0] > 0) {
+			leased[0]--;
+			loops.execute(task);
+			return;
+		}
+		running.incrementAndGet();
+		try {
+			executor.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					running.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			running.decrementAndGet();
+			throw e;
+		}
+	}
+
+	@Override
+	public ThreadPoolBudget getThreadPoolBudget() {
+		return budget;
+	}
+
+	@Override
+	public void join() throws InterruptedException {
+		while(executor != null && !executor.awaitTermination(1, TimeUnit.MINUTES)) {
+		}
+	}
+
+	@Override
+	public int getThreads() {
+		return running.get() + loopThreads.get();
+	}
+
+	@Override
+	public int getIdleThreads() {
+		return 0;
+	}
+
+	@Override
+	public boolean isLowOnThreads() {
+		return false;
+	}
+
+	@Override
+	public int getMinThreads() {
+		return 0;
+	}
+
+	@Override
+	public int getMaxThreads() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void setMinThreads(int threads) {
+		throw new UnsupportedOperationException("Virtual threads aren't pooled");
+	}
+
+	@Override
+	public void setMaxThreads(int threads) {
+		throw new UnsupportedOperationException("Virtual threads aren't pooled");
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.revature.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.revature.dto.CacheStatsDTO;
+import com.revature.model.Account;
+import com.revature.util.ConfigUtil;
+
+//Bounded LRU of single accounts with a TTL, puts are versioned so a slow load can't undo a later invalidate
+public class AccountCache {
+
+	//versions are per client so they don't grow with the cache, another account of the client just misses a put
+	private static final int VERSION_SLOTS = 1024;
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+	private final LinkedHashMap<Long, CachedAccount> entries;
+	private final long[] versions = new long[VERSION_SLOTS];
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long expirations;
+
+	public AccountCache() {
+		this(ConfigUtil.getInt("account_cache_max_size", 10000), ConfigUtil.getLong("account_cache_ttl_ms", 60000));
+	}
+
+	public AccountCache(int maxSize, long ttlMs) {
+		this(maxSize, ttlMs, System::nanoTime);
+	}
+
+	AccountCache(int maxSize, long ttlMs, LongSupplier clock) {
+		if(maxSize < 0) {
+			throw new IllegalArgumentException("account_cache_max_size can't be negative. Found " + maxSize);
+		}
+		this.maxSize = maxSize;
+		this.ttlNanos = ttlMs * 1000000L;
+		this.clock = clock;
+		//access order makes iteration go least recently used first, which is what removeEldestEntry evicts
+		this.entries = new LinkedHashMap<Long, CachedAccount>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CachedAccount> eldest) {
+				if(size() > AccountCache.this.maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	private static long key(int clientID, int accountID) {
+		return ((long) clientID << 32) | (accountID & 0xffffffffL);
+	}
+
+	//Returns a copy so callers can't change what's cached, or null if it isn't cached
+	public synchronized Account get(int clientID, int accountID) {
+		long key = key(clientID, accountID);
+		CachedAccount cached = entries.get(key);
+		if(cached == null) {
+			misses++;
+			return null;
+		}
+		if(clock.getAsLong() - cached.loadedAt >= ttlNanos) {
+			entries.remove(key);
+			expirations++;
+			misses++;
+			return null;
+		}
+		hits++;
+		return new Account(cached.accountID, cached.clientID, cached.amount);
+	}
+
+	private static int versionSlot(int clientID) {
+		return (clientID * 0x9E3779B9 >>> 22) & (VERSION_SLOTS - 1);
+	}
+
+	//Take this before loading the account from the store, and pass it to put with what was loaded
+	public synchronized long version(int clientID) {
+		return versions[versionSlot(clientID)];
+	}
+
+	//Caches the account unless it was invalidated after version was read, since then it may be older than the write
+	public synchronized void put(Account account, long version) {
+		if(maxSize == 0 || account == null || account.getAccountID() == -1) {
+			return;
+		}
+		if(versions[versionSlot(account.getClientID())] != version) {
+			return;
+		}
+		entries.put(key(account.getClientID(), account.getAccountID()),
+				new CachedAccount(account.getAccountID(), account.getClientID(), account.getAmount(), clock.getAsLong()));
+	}
+
+	//Call it after the store has written, so a load that started before the write can't be put afterwards
+	public synchronized void invalidate(int clientID, int accountID) {
+		versions[versionSlot(clientID)]++;
+		entries.remove(key(clientID, accountID));
+	}
+
+	public synchronized void invalidateClient(int clientID) {
+		versions[versionSlot(clientID)]++;
+		Iterator<CachedAccount> iterator = entries.values().iterator();
+		while(iterator.hasNext()) {
+			if(iterator.next().clientID == clientID) {
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		for(int i = 0; i < versions.length; i++) {
+			versions[i]++;
+		}
+		entries.clear();
+	}
+
+	public synchronized CacheStatsDTO getStats() {
+		return new CacheStatsDTO("accounts", entries.size(), maxSize, hits, misses, evictions, expirations);
+	}
+
+	private static class CachedAccount {
+		private final int accountID;
+		private final int clientID;
+		private final int amount;
+		private final long loadedAt;
+
+		private CachedAccount(int accountID, int clientID, int amount, long loadedAt) {
+			this.accountID = accountID;
+			this.clientID = clientID;
+			this.amount = amount;
+			this.loadedAt = loadedAt;
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+package com.revature.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.revature.dto.CacheStatsDTO;
+import com.revature.model.Account;
+import com.revature.util.ConfigUtil;
+
+//Every account of a client, also sorted by amount for range lookups. Puts are versioned like AccountCache's
+public class ClientAccountIndex {
+
+	private static final int VERSION_SLOTS = 1024;
+
+	private final int maxClients;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+	private final LinkedHashMap<Integer, IndexedClient> clients;
+	private final long[] versions = new long[VERSION_SLOTS];
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long expirations;
+
+	public ClientAccountIndex() {
+		this(ConfigUtil.getInt("client_index_max_clients", 1000), ConfigUtil.getLong("client_index_ttl_ms", 60000));
+	}
+
+	public ClientAccountIndex(int maxClients, long ttlMs) {
+		this(maxClients, ttlMs, System::nanoTime);
+	}
+
+	ClientAccountIndex(int maxClients, long ttlMs, LongSupplier clock) {
+		if(maxClients < 0) {
+			throw new IllegalArgumentException("client_index_max_clients can't be negative. Found " + maxClients);
+		}
+		this.maxClients = maxClients;
+		this.ttlNanos = ttlMs * 1000000L;
+		this.clock = clock;
+		this.clients = new LinkedHashMap<Integer, IndexedClient>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, IndexedClient> eldest) {
+				if(size() > ClientAccountIndex.this.maxClients) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	private static int versionSlot(int clientID) {
+		return (clientID * 0x9E3779B9 >>> 22) & (VERSION_SLOTS - 1);
+	}
+
+	public boolean isEnabled() {
+		return maxClients != 0;
+	}
+
+	//Take this before loading the client's accounts from the store, and pass it to put with what was loaded
+	public synchronized long version(int clientID) {
+		return versions[versionSlot(clientID)];
+	}
+
+	public synchronized void put(int clientID, List<Account> accounts, long version) {
+		if(maxClients == 0 || accounts == null || accounts.isEmpty()) {
+			return;
+		}
+		if(versions[versionSlot(clientID)] != version) {
+			return;
+		}
+		clients.put(clientID, new IndexedClient(accounts, clock.getAsLong()));
+	}
+
+	//null means the client isn't indexed and the repository has to be asked
+	public List<Account> getAccounts(int clientID) {
+		IndexedClient indexed = lookup(clientID);
+		if(indexed == null) {
+			return null;
+		}
+		return copyOf(indexed.inOrder, 0, indexed.inOrder.length);
+	}
+
+	//Both ends inclusive like BETWEEN, sorted by amount, empty (not null) when the client is indexed but nothing matches
+	public List<Account> getAccountsBetween(int clientID, int betweenLow, int betweenHigh) {
+		IndexedClient indexed = lookup(clientID);
+		if(indexed == null) {
+			return null;
+		}
+		int from = firstIndexAtLeast(indexed.amounts, betweenLow);
+		int to = betweenHigh == Integer.MAX_VALUE ? indexed.amounts.length : firstIndexAtLeast(indexed.amounts, betweenHigh + 1);
+		if(from >= to) {
+			return new ArrayList<Account>();
+		}
+		return copyOf(indexed.byAmount, from, to);
+	}
+
+	//Call it after the store has written, so a load that started before the write can't be put afterwards
+	public synchronized void invalidate(int clientID) {
+		versions[versionSlot(clientID)]++;
+		clients.remove(clientID);
+	}
+
+	public synchronized void clear() {
+		for(int i = 0; i < versions.length; i++) {
+			versions[i]++;
+		}
+		clients.clear();
+	}
+
+	public synchronized CacheStatsDTO getStats() {
+		return new CacheStatsDTO("clientAccounts", clients.size(), maxClients, hits, misses, evictions, expirations);
+	}
+
+	private synchronized IndexedClient lookup(int clientID) {
+		IndexedClient indexed = clients.get(clientID);
+		if(indexed == null) {
+			misses++;
+			return null;
+		}
+		if(clock.getAsLong() - indexed.loadedAt >= ttlNanos) {
+			clients.remove(clientID);
+			expirations++;
+			misses++;
+			return null;
+		}
+		hits++;
+		return indexed;
+	}
+
+	//lower bound binary search, gives amounts.length when every amount is under the value
+	private static int firstIndexAtLeast(int[] amounts, int value) {
+		int low = 0;
+		int high = amounts.length;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(amounts[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static ArrayList<Account> copyOf(Account[] accounts, int from, int to) {
+		ArrayList<Account> accountList = new ArrayList<Account>(to - from);
+		for(int i = from; i < to; i++) {
+			accountList.add(new Account(accounts[i].getAccountID(), accounts[i].getClientID(), accounts[i].getAmount()));
+		}
+		return accountList;
+	}
+
+	//Never changed after it's built, so readers can use it outside the lock
+	private static class IndexedClient {
+		private final Account[] inOrder;
+		private final Account[] byAmount;
+		private final int[] amounts;
+		private final long loadedAt;
+
+		private IndexedClient(List<Account> accounts, long loadedAt) {
+			this.inOrder = new Account[accounts.size()];
+			for(int i = 0; i < inOrder.length; i++) {
+				Account account = accounts.get(i);
+				inOrder[i] = new Account(account.getAccountID(), account.getClientID(), account.getAmount());
+			}
+			this.byAmount = inOrder.clone();
+			Arrays.sort(byAmount, Comparator.comparingInt(Account::getAmount).thenComparingInt(Account::getAccountID));
+			this.amounts = new int[byAmount.length];
+			for(int i = 0; i < amounts.length; i++) {
+				amounts[i] = byAmount[i].getAmount();
+			}
+			this.loadedAt = loadedAt;
+		}
+	}
+
+}
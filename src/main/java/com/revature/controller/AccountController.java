@@ -1,16 +1,19 @@
 package com.revature.controller;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.revature.exceptions.couldNotConnectToDatabaseException;
-import com.revature.model.Account;
 import com.revature.service.AccountService;
 import com.revature.service.ClientService;
-import com.revature.dao.ClientRepository;
+import com.revature.util.DbExecutor;
+import com.revature.dao.ClientStore;
 import com.revature.dto.PostAccountDTO;
+import com.revature.dto.PostClientAccountDTO;
+import com.revature.dto.PostTransferDTO;
 
 import io.javalin.Javalin;
 import io.javalin.http.Handler;
@@ -20,41 +23,58 @@ public class AccountController implements Controller {
 	private Logger logger = LoggerFactory.getLogger(AccountController.class);
 	private AccountService accountService;
 
-	//asks for the ClientRepository because it must exist for anything for account servicing to take place
-	public AccountController(ClientRepository clientRepository) throws couldNotConnectToDatabaseException {
+	//asks for the ClientStore because it must exist for anything for account servicing to take place
+	public AccountController(ClientStore clientRepository) throws couldNotConnectToDatabaseException {
 		this.accountService = new AccountService(clientRepository);
 	}
 	
 	private Handler postNewAccountByClientID = ctx -> {
 		String id = ctx.pathParam("id");
 		PostAccountDTO account = ctx.bodyAsClass(PostAccountDTO.class);
-		String outMessage = accountService.addAccount(account, id);
-		ctx.json(outMessage);
 		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.addAccount(account, id));
+	};
+
+	
+	//Takes a JSON array of accounts for the client in the path
+	private Handler postNewAccountsByClientID = ctx -> {
+		String id = ctx.pathParam("id");
+		List<PostAccountDTO> accounts = Arrays.asList(ctx.bodyAsClass(PostAccountDTO[].class));
+		ctx.status(201);
+		DbExecutor.json(ctx, () -> accountService.addAccounts(accounts, id));
+	};
+	
+	//Takes a JSON array of accounts that each name their client
+	private Handler postNewAccounts = ctx -> {
+		List<PostClientAccountDTO> accounts = Arrays.asList(ctx.bodyAsClass(PostClientAccountDTO[].class));
+		ctx.status(201);
+		DbExecutor.json(ctx, () -> accountService.addAccounts(accounts));
 	};
 
 	
 	private Handler getAllAccountsByClientID = ctx -> {
 		String id = ctx.pathParam("id");
-		ArrayList<Account> accountList;
 		String highVal = ctx.queryParam("amountLessThan");
 		String lowVal = ctx.queryParam("amountGreaterThan");
-		if(!(lowVal == null) && !(highVal == null)) {
-			accountList = (ArrayList<Account>) accountService.getAccountsBetweenTwoValues(id, lowVal, highVal);
+		String cursor = ctx.queryParam("cursor");
+		String limit = ctx.queryParam("limit");
+		ctx.status(200);
+		//?limit= and ?cursor= give back one page at a time along with the cursor for the next one
+		if(limit != null || cursor != null) {
+			DbExecutor.json(ctx, () -> accountService.getAccountsPage(id, lowVal, highVal, cursor, limit));
+		} else if(!(lowVal == null) && !(highVal == null)) {
+			DbExecutor.json(ctx, () -> accountService.getAccountsBetweenTwoValues(id, lowVal, highVal));
 		} else {
-			accountList = (ArrayList<Account>) accountService.getAccountsByClientID(id);
+			DbExecutor.json(ctx, () -> accountService.getAccountsByClientID(id));
 		}
-		ctx.json(accountList);
-		ctx.status(200);
 	};
 	
 	
 	private Handler getAccountByIDOfAccountAndIDOfClient = ctx -> {
 		String clientID = ctx.pathParam("id");
 		String accountID = ctx.pathParam("accID");
-		Account account = accountService.getAccountBy2IDs(clientID, accountID);
-		ctx.json(account);
 		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.getAccountBy2IDs(clientID, accountID));
 	};
 
 	
@@ -62,27 +82,59 @@ public class AccountController implements Controller {
 		String clientID = ctx.pathParam("id");
 		String accountID = ctx.pathParam("accID");
 		PostAccountDTO account = ctx.bodyAsClass(PostAccountDTO.class);
-		String outMessage = accountService.updateAccountBy2IDs(clientID, accountID, String.valueOf(account.getAmount()));
-		ctx.json(outMessage);
 		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.updateAccountBy2IDs(clientID, accountID, String.valueOf(account.getAmount())));
+	};
+
+	
+	private Handler depositToAccountByIDOfAccountAndIDOfClient = ctx -> {
+		String clientID = ctx.pathParam("id");
+		String accountID = ctx.pathParam("accID");
+		PostAccountDTO deposit = ctx.bodyAsClass(PostAccountDTO.class);
+		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.deposit(clientID, accountID, deposit.getAmount()));
+	};
+	
+	private Handler withdrawFromAccountByIDOfAccountAndIDOfClient = ctx -> {
+		String clientID = ctx.pathParam("id");
+		String accountID = ctx.pathParam("accID");
+		PostAccountDTO withdrawal = ctx.bodyAsClass(PostAccountDTO.class);
+		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.withdraw(clientID, accountID, withdrawal.getAmount()));
+	};
+
+	
+	private Handler transferFromAccountByIDOfAccountAndIDOfClient = ctx -> {
+		String clientID = ctx.pathParam("id");
+		String accountID = ctx.pathParam("accID");
+		PostTransferDTO transfer = ctx.bodyAsClass(PostTransferDTO.class);
+		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.transfer(clientID, accountID, transfer));
 	};
 
 	
 	private Handler deleteAccountByIDOfAccountAndIDOfClient = ctx -> {
 		String clientID = ctx.pathParam("id");
 		String accountID = ctx.pathParam("accID");
-		String outMessage = accountService.deleteAccount(clientID, accountID);
-		ctx.json(outMessage);
 		ctx.status(200);
+		DbExecutor.json(ctx, () -> accountService.deleteAccount(clientID, accountID));
 	};
 	
+	public AccountService getAccountService() {
+		return accountService;
+	}
+	
 	@Override
 	public void mapEndpoints(Javalin app) {
-		// TODO Auto-generated method stub
 		app.post("/clients/:id/accounts", postNewAccountByClientID);
+		app.post("/clients/:id/accounts/bulk", postNewAccountsByClientID);
+		app.post("/accounts/bulk", postNewAccounts);
 		app.get("/clients/:id/accounts", getAllAccountsByClientID);
 		app.get("/clients/:id/accounts/:accID", getAccountByIDOfAccountAndIDOfClient);
 		app.put("/clients/:id/accounts/:accID", updateAccountByIDOfAccountAndIDOfClient);
+		app.post("/clients/:id/accounts/:accID/deposit", depositToAccountByIDOfAccountAndIDOfClient);
+		app.post("/clients/:id/accounts/:accID/withdraw", withdrawFromAccountByIDOfAccountAndIDOfClient);
+		app.post("/clients/:id/accounts/:accID/transfer", transferFromAccountByIDOfAccountAndIDOfClient);
 		app.delete("/clients/:id/accounts/:accID", deleteAccountByIDOfAccountAndIDOfClient);
 	}
 
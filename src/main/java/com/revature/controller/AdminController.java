@@ -0,0 +1,82 @@
+package com.revature.controller;
+
+import java.util.Arrays;
+
+import com.revature.dao.AccountStore;
+import com.revature.dao.StoreFactory;
+import com.revature.dao.journal.JournaledAccountStore;
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.dto.MessageDTO;
+import com.revature.dto.StorageStatsDTO;
+import com.revature.service.AccountService;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DbExecutor;
+
+import io.javalin.Javalin;
+import io.javalin.http.Handler;
+
+public class AdminController implements Controller {
+
+	private AccountService accountService;
+
+	public AdminController(AccountService accountService) {
+		this.accountService = accountService;
+	}
+
+	//Lets us watch how busy the connection pool is so it can be sized properly
+	private Handler getPoolStats = ctx -> {
+		if(ConnectionUtil.getConfig() == null) {
+			ctx.json(new MessageDTO("There is no connection pool, the " + StoreFactory.getEngine() + " storage engine is being used"));
+			ctx.status(404);
+			return;
+		}
+		ctx.json(ConnectionUtil.getPoolStats());
+		ctx.status(200);
+	};
+
+	//Shows whether the statement cache is working, executes should be far ahead of prepares
+	private Handler getStatementStats = ctx -> {
+		if(ConnectionUtil.getConfig() == null) {
+			ctx.json(new MessageDTO("There are no prepared statements, the " + StoreFactory.getEngine() + " storage engine is being used"));
+			ctx.status(404);
+			return;
+		}
+		ctx.json(ConnectionUtil.getStatementStats());
+		ctx.status(200);
+	};
+
+	private Handler getExecutorStats = ctx -> {
+		ctx.json(DbExecutor.getStats());
+		ctx.status(200);
+	};
+
+	private Handler getCacheStats = ctx -> {
+		ctx.json(Arrays.asList(accountService.getAccountCache().getStats(), accountService.getClientAccountIndex().getStats()));
+		ctx.status(200);
+	};
+
+	private Handler getStorageStats = ctx -> {
+		AccountStore accountStore = accountService.getAccountStore();
+		if(accountStore instanceof JournaledAccountStore) {
+			accountStore = ((JournaledAccountStore) accountStore).getStore();
+		}
+		if(!(accountStore instanceof InMemoryAccountStore)) {
+			ctx.json(new MessageDTO("Storage is in MariaDB, the " + StoreFactory.getEngine() + " storage engine is being used"));
+			ctx.status(404);
+			return;
+		}
+		InMemoryAccountStore memoryStore = (InMemoryAccountStore) accountStore;
+		ctx.json(new StorageStatsDTO(StoreFactory.getEngine(), memoryStore.size(), memoryStore.memoryBytes(), memoryStore.offHeapBytes()));
+		ctx.status(200);
+	};
+
+	@Override
+	public void mapEndpoints(Javalin app) {
+		app.get("/admin/pool", getPoolStats);
+		app.get("/admin/statements", getStatementStats);
+		app.get("/admin/executor", getExecutorStats);
+		app.get("/admin/cache", getCacheStats);
+		app.get("/admin/storage", getStorageStats);
+	}
+
+}
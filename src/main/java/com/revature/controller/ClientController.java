@@ -1,6 +1,7 @@
 package com.revature.controller;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,15 +9,22 @@ import org.slf4j.LoggerFactory;
 import com.revature.exceptions.couldNotConnectToDatabaseException;
 import com.revature.model.Client;
 import com.revature.service.ClientService;
-import com.revature.dao.ClientRepository;
+import com.revature.util.DbExecutor;
+import com.revature.dao.ClientStore;
 import com.revature.dto.PostClientDTO;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 import io.javalin.http.Handler;
 
 public class ClientController implements Controller {
 
 	private Logger logger = LoggerFactory.getLogger(ClientController.class);
+	private static final JsonFactory jsonFactory = new ObjectMapper().getFactory();
 	private ClientService clientService;
 
 	public ClientController() throws couldNotConnectToDatabaseException {
@@ -26,48 +34,79 @@ public class ClientController implements Controller {
 	
 	private Handler getClientByID = ctx -> {
 		String id = ctx.pathParam("id");
-		Client client = clientService.getClientById(id);
-		ctx.json(client); // Serialize the data, but may update this
 		ctx.status(200); // 200 means successful
+		DbExecutor.json(ctx, () -> clientService.getClientById(id)); // Serialize the data, but may update this
 	};
 
 	
+	//?after=&limit= pages, ?stream=true streams, without either the whole table comes back as one list
 	private Handler getAllClients = ctx -> {
-		ArrayList<Client> clientList = new ArrayList<Client>();
-		clientList = (ArrayList<Client>) clientService.getAllClients();
-		ctx.json(clientList);
+		if("true".equalsIgnoreCase(ctx.queryParam("stream"))) {
+			streamAllClients(ctx);
+			return;
+		}
+		String after = ctx.queryParam("after");
+		String limit = ctx.queryParam("limit");
 		ctx.status(200);
+		if(after != null || limit != null) {
+			DbExecutor.json(ctx, () -> clientService.getClientsPage(after, limit));
+			return;
+		}
+		DbExecutor.json(ctx, () -> clientService.getAllClients());
 	};
 
 	
+	private void streamAllClients(Context ctx) throws Exception {
+		ctx.status(200);
+		ctx.contentType("application/json");
+		try(JsonGenerator generator = jsonFactory.createGenerator(ctx.res.getOutputStream())) {
+			generator.writeStartArray();
+			clientService.streamAllClients(generator::writeObject);
+			generator.writeEndArray();
+		}
+	}
+
+	
 	private Handler postNewClient = ctx -> {
 		PostClientDTO client = ctx.bodyAsClass(PostClientDTO.class);
-		String outMessage = clientService.addClient(client);
-		ctx.json(outMessage);
-		ctx.status(201); 
+		ctx.status(201);
+		DbExecutor.json(ctx, () -> clientService.addClient(client));
 	};
 
 	
 	private Handler updateClientByID = ctx -> {
 		String id = ctx.pathParam("id");
 		PostClientDTO client = ctx.bodyAsClass(PostClientDTO.class);
-		String outMessage = clientService.updateClientByID(client, id);
-		ctx.json(outMessage);
 		ctx.status(202);
+		DbExecutor.json(ctx, () -> clientService.updateClientByID(client, id));
+	};
+	
+	//Takes a JSON array of clients with their IDs and new names, and gives back the ones that were updated
+	private Handler updateClients = ctx -> {
+		List<Client> clients = Arrays.asList(ctx.bodyAsClass(Client[].class));
+		ctx.status(202);
+		DbExecutor.json(ctx, () -> clientService.updateClients(clients));
+	};
+	
+	//Streams the body into the importer, so it stays on the request thread like ?stream=true
+	private Handler importClients = ctx -> {
+		ctx.json(clientService.importClients(ctx.req.getInputStream()));
+		ctx.status(201);
 	};
 	
-	public ClientRepository getRepo() {
+	public ClientStore getRepo() {
 		return clientService.getRepo();
 	}
 
 	
 	@Override
 	public void mapEndpoints(Javalin app) {
-		// TODO Auto-generated method stub
 		app.get("/clients", getAllClients);
 		app.get("/clients/:id", getClientByID);
 		app.post("/clients", postNewClient);
+		app.post("/clients/import", importClients);
 		app.put("/clients/:id", updateClientByID);
+		app.put("/clients", updateClients);
 	}
 
 }
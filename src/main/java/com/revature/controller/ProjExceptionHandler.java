@@ -70,6 +70,21 @@ public class ProjExceptionHandler implements Controller {
 	};
 	
 	
+	private ExceptionHandler<InsufficientFundsException> insufficientFundsExceptionHandler = (e, ctx) -> {
+		logger.warn("A user tried to withdraw more than an account holds. Exception message is: " + e.getMessage());
+		ctx.status(400);
+		ctx.json(new MessageDTO(e.getMessage()));
+	};
+	
+	
+	private ExceptionHandler<ServerBusyException> serverBusyExceptionHandler = (e, ctx) -> {
+		logger.warn("Turned a request away since the database executor is full. Exception message is: " + e.getMessage());
+		ctx.status(503);
+		ctx.header("Retry-After", "1");
+		ctx.json(new MessageDTO(e.getMessage()));
+	};
+	
+	
 	//add in exceptions for if missing parameters for new clients/accounts
 		
 	public void mapEndpoints(Javalin app) {
@@ -82,6 +97,8 @@ public class ProjExceptionHandler implements Controller {
 		app.exception(ClientAddException.class, clientAddExceptionHandler);
 		app.exception(EmptyParameterException.class, emptyParameterExceptionHandler);
 		app.exception(AccountClientMismatchException.class, accountClientMismatchExceptionHandler);
+		app.exception(InsufficientFundsException.class, insufficientFundsExceptionHandler);
+		app.exception(ServerBusyException.class, serverBusyExceptionHandler);
 	}
 	
 	
@@ -7,6 +7,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,41 +17,32 @@ import com.revature.controller.ProjExceptionHandler;
 import com.revature.exceptions.AccountClientMismatchException;
 import com.revature.exceptions.AccountNotFoundException;
 import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
 import com.revature.exceptions.couldNotConnectToDatabaseException;
 import com.revature.model.Account;
+import com.revature.util.ConfigUtil;
 import com.revature.util.ConnectionUtil;
 
-public class AccountRepository {
+public class AccountRepository implements AccountStore {
 	
 	private Logger logger = LoggerFactory.getLogger(ProjExceptionHandler.class);
 	
+	//read once, not on every transfer
+	private static final int MAX_TRANSFER_ATTEMPTS = ConfigUtil.getInt("transfer_max_attempts", 5);
+	
+	//Covered by an index: the range query by accountClientAmountIdx, the listings and pages by accountClientIDIdx in account ID order
+	static final String SELECT_BY_CLIENT = "SELECT accountID, clientID, amount FROM accountTbl WHERE clientID = ? ORDER BY accountID";
+	static final String SELECT_BY_ACCOUNT = "SELECT clientID, amount FROM accountTbl WHERE accountID = ?";
+	static final String SELECT_BETWEEN = "SELECT accountID, clientID, amount FROM accountTbl WHERE clientID = ? AND amount BETWEEN ? AND ?";
+	//keyset pages, each one starts right after the last account ID of the one before so deep pages don't scan what was skipped
+	static final String SELECT_PAGE = "SELECT accountID, clientID, amount FROM accountTbl WHERE clientID = ? AND accountID > ? ORDER BY accountID LIMIT ?";
+	static final String SELECT_BETWEEN_PAGE = "SELECT accountID, clientID, amount FROM accountTbl WHERE clientID = ? AND amount BETWEEN ? AND ? AND accountID > ? ORDER BY accountID LIMIT ?";
+	
 	public AccountRepository(ClientRepository clientRepository) throws couldNotConnectToDatabaseException {
 		//Only reason I'm asking for the clientRepository is to confirm it exists, may remove later
 		if(clientRepository != null) {
-			try(Connection connection = ConnectionUtil.getConnection()){			
-				String createAccountTable = "CREATE TABLE accountTbl (accountID INT NOT NULL AUTO_INCREMENT, clientID INT NOT NULL, amount INT, PRIMARY KEY(accountID), FOREIGN KEY (clientID) REFERENCES clientTbl(clientID));";
-				Statement statement = connection.createStatement();
-
-				String populateClientTable1 = "INSERT INTO accountTbl (clientID, amount) VALUES (1, 500)";
-				String populateClientTable2 = "INSERT INTO accountTbl (clientID, amount) VALUES (1, 5000)";
-				String populateClientTable3 = "INSERT INTO accountTbl (clientID, amount) VALUES (1, 1500)";
-				String populateClientTable4 = "INSERT INTO accountTbl (clientID, amount) VALUES (1, 2000)";
-				String populateClientTable5 = "INSERT INTO accountTbl (clientID, amount) VALUES (2, 4000)";
-				String populateClientTable6 = "INSERT INTO accountTbl (clientID, amount) VALUES (2, 2500)";
-				String populateClientTable7 = "INSERT INTO accountTbl (clientID, amount) VALUES (3, 3000)";
-				statement.addBatch(createAccountTable);
-				statement.addBatch(populateClientTable1);
-				statement.addBatch(populateClientTable2);
-				statement.addBatch(populateClientTable3);
-				statement.addBatch(populateClientTable4);
-				statement.addBatch(populateClientTable5);
-				statement.addBatch(populateClientTable6);
-				statement.addBatch(populateClientTable7);
-				statement.executeBatch();
-				logger.info("Created the accountTbl in the Account Repository");
-			} catch (SQLException e) {
-				throw new couldNotConnectToDatabaseException("An error occured with the SQL syntax");
-			} 
+			//accountTbl is made by SchemaManager when the server starts, along with clientTbl
+			logger.info("Created the Account Repository");
 		} else {
 			throw new couldNotConnectToDatabaseException("The Account Repository was created before the Client Repository");
 			
@@ -58,10 +51,10 @@ public class AccountRepository {
 	
 	public Account makeAccountForClient(int amount, int clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException {
 		try (Connection connection = ConnectionUtil.getConnection()) {
-			//I'm safe to use this since I checked and made sure the client
-			String checkIfClientExists = "SELECT * FROM clientTbl WHERE clientID = " + clientID + ";";
-			Statement statement = connection.createStatement();
-			ResultSet results = statement.executeQuery(checkIfClientExists);
+			String checkIfClientExists = "SELECT 1 FROM clientTbl WHERE clientID = ?";
+			PreparedStatement statement = connection.prepareStatement(checkIfClientExists);
+			statement.setInt(1, clientID);
+			ResultSet results = statement.executeQuery();
 			if(!results.next()) {
 				throw new ClientNotFoundException("Tried to make an account for client with ID " + clientID + "but client couldn't be found");
 			}
@@ -74,7 +67,8 @@ public class AccountRepository {
 			if(rows >0) {
 				results = prepStatement.getGeneratedKeys();
 				if(results.next()) {
-					return new Account(results.getInt("accountID"), clientID, results.getInt("amount"));
+					//generated keys only carry the new accountID, the amount is what was just inserted
+					return new Account(results.getInt(1), clientID, amount);
 				} else {
 					//Add in some kind of exception handling here
 					throw new couldNotConnectToDatabaseException("Something happened with the database and the account could not be made despite the client existing");
@@ -86,11 +80,54 @@ public class AccountRepository {
 		throw new couldNotConnectToDatabaseException("Something happened with the database and the account could not be made despite the client existing");
 	}
 	
+	//Inserts the accounts as one batch in one transaction, nothing is inserted if any client is missing
+	public List<Account> makeAccounts(List<Account> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		ArrayList<Account> made = new ArrayList<Account>(accounts.size());
+		if(accounts.isEmpty()) {
+			return made;
+		}
+		try (Connection connection = ConnectionUtil.getConnection()) {
+			TreeSet<Integer> clientIDs = new TreeSet<Integer>();
+			for(Account account : accounts) {
+				clientIDs.add(account.getClientID());
+			}
+			clientIDs.removeAll(ClientRepository.existingClientIDs(connection, new ArrayList<Integer>(clientIDs)));
+			if(!clientIDs.isEmpty()) {
+				throw new ClientNotFoundException("Tried to make accounts for clients with IDs " + clientIDs + " but they couldn't be found");
+			}
+			
+			connection.setAutoCommit(false);
+			try {
+				String makeAccount = "INSERT INTO accountTbl(clientID, amount) VALUES (?,?)";
+				PreparedStatement prepStatement = connection.prepareStatement(makeAccount, Statement.RETURN_GENERATED_KEYS);
+				for(Account account : accounts) {
+					prepStatement.setInt(1, account.getClientID());
+					prepStatement.setInt(2, account.getAmount());
+					prepStatement.addBatch();
+				}
+				prepStatement.executeBatch();
+				ResultSet results = prepStatement.getGeneratedKeys();
+				for(Account account : accounts) {
+					if(!results.next()) {
+						throw new SQLException("Only " + made.size() + " of " + accounts.size() + " new account IDs came back");
+					}
+					made.add(new Account(results.getInt(1), account.getClientID(), account.getAmount()));
+				}
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+		return made;
+	}
+	
 	public List<Account> getAccountsViaClientID (int clientID) throws couldNotConnectToDatabaseException, AccountNotFoundException {
 		try (Connection connection = ConnectionUtil.getConnection()) {
 			ArrayList<Account> accountList = new ArrayList<Account>();
-			String getAccount = "SELECT * FROM accountTbl WHERE clientID = ?";
-			PreparedStatement prepStatement = connection.prepareStatement(getAccount);
+			PreparedStatement prepStatement = connection.prepareStatement(SELECT_BY_CLIENT);
 			prepStatement.setInt(1, clientID);
 			ResultSet results = prepStatement.executeQuery();
 			
@@ -113,10 +150,48 @@ public class AccountRepository {
 		throw new AccountNotFoundException("No accounts for client id " + clientID + " were found.");
 	}
 	
+	public List<Account> getAccountsPage(int clientID, int afterAccountID, int limit) throws couldNotConnectToDatabaseException {
+		try (Connection connection = ConnectionUtil.getConnection()) {
+			PreparedStatement prepStatement = connection.prepareStatement(SELECT_PAGE);
+			prepStatement.setInt(1, clientID);
+			prepStatement.setInt(2, afterAccountID);
+			prepStatement.setInt(3, limit);
+			return readAccounts(prepStatement.executeQuery(), limit);
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+	}
+	
+	public List<Account> getAccountsBetweenPage(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		try (Connection connection = ConnectionUtil.getConnection()) {
+			PreparedStatement prepStatement = connection.prepareStatement(SELECT_BETWEEN_PAGE);
+			prepStatement.setInt(1, clientID);
+			prepStatement.setInt(2, betweenLow);
+			prepStatement.setInt(3, betweenHigh);
+			prepStatement.setInt(4, afterAccountID);
+			prepStatement.setInt(5, limit);
+			List<Account> page = readAccounts(prepStatement.executeQuery(), limit);
+			//like the unpaged range query, an empty first page tells a missing client apart from an empty range
+			if(page.isEmpty() && afterAccountID == 0 && !clientHasAccounts(connection, clientID)) {
+				throw new ClientNotFoundException();
+			}
+			return page;
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+	}
+	
+	private List<Account> readAccounts(ResultSet results, int expected) throws SQLException {
+		ArrayList<Account> accounts = new ArrayList<Account>(expected);
+		while(results.next()) {
+			accounts.add(new Account(results.getInt("accountID"), results.getInt("clientID"), results.getInt("amount")));
+		}
+		return accounts;
+	}
+	
 	public Account getAccountVia2IDs (int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException {
 		try (Connection connection = ConnectionUtil.getConnection()) {
-			String getAccount = "SELECT * FROM accountTbl WHERE accountID = ?";
-			PreparedStatement prepStatement = connection.prepareStatement(getAccount);
+			PreparedStatement prepStatement = connection.prepareStatement(SELECT_BY_ACCOUNT);
 			prepStatement.setInt(1, accountID);
 			ResultSet results = prepStatement.executeQuery();			
 			if (results.next()) {
@@ -138,109 +213,246 @@ public class AccountRepository {
 	
 	public List<Account> getAccountsBetweenTwoValues (int clientID, int betweenLow, int betweenHigh) throws couldNotConnectToDatabaseException, AccountNotFoundException, ClientNotFoundException{
 		try (Connection connection = ConnectionUtil.getConnection()) {
-			String checkClient = "SELECT * FROM accountTbl WHERE clientID = ?";
-			PreparedStatement prepStatement = connection.prepareStatement(checkClient);
+			ArrayList<Account> accountsList = new ArrayList<Account>();
+			PreparedStatement prepStatement = connection.prepareStatement(SELECT_BETWEEN);
 			prepStatement.setInt(1, clientID);
+			prepStatement.setInt(2, betweenLow);
+			prepStatement.setInt(3, betweenHigh);
 			ResultSet results = prepStatement.executeQuery();
-			if(results.next()) {
-				ArrayList<Account> accountsList = new ArrayList<Account>();			
-				String getAccounts = "SELECT * FROM accountTbl WHERE clientID = ? AND amount BETWEEN ? AND ?;";
-				prepStatement = connection.prepareStatement(getAccounts);
-				prepStatement.setInt(1, clientID);
-				prepStatement.setInt(2, betweenLow);
-				prepStatement.setInt(3, betweenHigh);
-				results = prepStatement.executeQuery();
-				int numResults =  0;
-				int cID, aID, amount;
-				while(results.next()) {
-					numResults++;
-					cID = results.getInt("clientID");
-					aID = results.getInt("accountID");
-					amount = results.getInt("amount");
-					accountsList.add(new Account(aID, cID, amount));
-				}
-				if(numResults !=0) {
-					return accountsList;
-				}
-			} else {
+			int cID, aID, amount;
+			while(results.next()) {
+				cID = results.getInt("clientID");
+				aID = results.getInt("accountID");
+				amount = results.getInt("amount");
+				accountsList.add(new Account(aID, cID, amount));
+			}
+			if(accountsList.size() != 0) {
+				return accountsList;
+			}
+			//only an empty result needs the second look to tell a missing client apart from an empty range
+			if(!clientHasAccounts(connection, clientID)) {
 				throw new ClientNotFoundException();
 			}
 		} catch (SQLException e) {
 			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
 		}
-		throw new AccountNotFoundException("No accounts with amounts between 400 and 2000 were found.");
+		throw new AccountNotFoundException("No accounts with amounts between " + betweenLow + " and " + betweenHigh + " were found.");
 	}
 	
 	
 	public Account updateAccountVia2IDs (int clientID, int accountID, int newAmount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
 		try (Connection connection = ConnectionUtil.getConnection()) {
-			String checkClient = "SELECT * FROM accountTbl WHERE clientID = ?";
-			PreparedStatement prepStatement = connection.prepareStatement(checkClient);
-			prepStatement.setInt(1, clientID);
-			ResultSet results = prepStatement.executeQuery();
-			if(results.next()) {
-				Account account;
-				try {
-					account = getAccountVia2IDs(clientID, accountID);
-				} catch (AccountClientMismatchException e) {
-					throw new AccountClientMismatchException();
-				}
-				if (account.getAccountID() == -1){
-					throw new AccountNotFoundException ("User tried to update an account that didn't exist");
-				}
-				
-				String update = "UPDATE accountTbl SET amount = ? WHERE clientID = ? AND accountID = ?";
-				prepStatement = connection.prepareStatement(update);
-				prepStatement.setInt(1, newAmount);
-				prepStatement.setInt(2, clientID);
-				prepStatement.setInt(3, accountID);
-				int rows = prepStatement.executeUpdate();
-				if(rows != 0) {
-					return new Account(accountID, clientID, newAmount);
-				} else {
-					throw new couldNotConnectToDatabaseException("Something happened with the database, the Account exists, but it could not be deleted");
+			//the WHERE covers both IDs so the account's ownership is checked by the same statement that updates it
+			String update = "UPDATE accountTbl SET amount = ? WHERE accountID = ? AND clientID = ?";
+			PreparedStatement prepStatement = connection.prepareStatement(update);
+			prepStatement.setInt(1, newAmount);
+			prepStatement.setInt(2, accountID);
+			prepStatement.setInt(3, clientID);
+			int rows = prepStatement.executeUpdate();
+			if(rows != 0) {
+				return new Account(accountID, clientID, newAmount);
+			}
+			throwMissingAccountException(connection, clientID, accountID, "User tried to update an account that didn't exist");
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+		throw new couldNotConnectToDatabaseException("Something happened with the database, the Account exists, but it could not be updated");
+	}
+	
+	
+	static final String SET_AMOUNT = "UPDATE accountTbl SET amount = ? WHERE accountID = ?";
+	
+	//One batch in one transaction, rows that were deleted in the meantime just match nothing
+	@Override
+	public void updateAmounts(List<Account> accounts) throws couldNotConnectToDatabaseException {
+		if(accounts.isEmpty()) {
+			return;
+		}
+		try (Connection connection = ConnectionUtil.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				PreparedStatement prepStatement = connection.prepareStatement(SET_AMOUNT);
+				for(Account account : accounts) {
+					prepStatement.setInt(1, account.getAmount());
+					prepStatement.setInt(2, account.getAccountID());
+					prepStatement.addBatch();
 				}
-			} else {
-				throw new ClientNotFoundException();
+				prepStatement.executeBatch();
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
 			}
-			
 		} catch (SQLException e) {
 			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
 		}
 	}
 	
+	//The floor only applies to withdrawals, so an account that was set below 0 can still be paid into
+	static final String ADJUST_AMOUNT = "UPDATE accountTbl SET amount = amount + ? WHERE accountID = ? AND clientID = ? AND (? >= 0 OR amount + ? >= 0)";
 	
-	public Account deleteAccountVia2IDs (int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+	public Account adjustAmountVia2IDs(int clientID, int accountID, int delta) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
 		try (Connection connection = ConnectionUtil.getConnection()) {
-			String checkClient = "SELECT * FROM accountTbl WHERE clientID = ?";
-			PreparedStatement prepStatement = connection.prepareStatement(checkClient);
-			prepStatement.setInt(1, clientID);
-			ResultSet results = prepStatement.executeQuery();
-			if(results.next()) {
-				Account account;
+			connection.setAutoCommit(false);
+			try {
+				Account account = adjust(connection, clientID, accountID, delta);
+				connection.commit();
+				return account;
+			} catch (Exception e) {
+				connection.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+	}
+	
+	//the update keeps the row locked until commit, so the amount read back after it is the one it left
+	Account adjust(Connection connection, int clientID, int accountID, int delta) throws SQLException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		PreparedStatement update = connection.prepareStatement(ADJUST_AMOUNT);
+		update.setInt(1, delta);
+		update.setInt(2, accountID);
+		update.setInt(3, clientID);
+		update.setInt(4, delta);
+		update.setInt(5, delta);
+		int rows = update.executeUpdate();
+		PreparedStatement select = connection.prepareStatement(SELECT_BY_ACCOUNT);
+		select.setInt(1, accountID);
+		ResultSet results = select.executeQuery();
+		if(results.next() && results.getInt("clientID") == clientID) {
+			if(rows != 0) {
+				return new Account(accountID, clientID, results.getInt("amount"));
+			}
+			throw new InsufficientFundsException("Account " + accountID + " has " + results.getInt("amount") + ", which isn't enough to take out " + (-delta));
+		}
+		throwMissingAccountException(connection, clientID, accountID, null);
+		throw new SQLException("the Account exists, but its amount could not be changed");
+	}
+	
+	static final String LOCK_ACCOUNT = "SELECT clientID, amount FROM accountTbl WHERE accountID = ? FOR UPDATE";
+	static final String ADD_TO_AMOUNT = "UPDATE accountTbl SET amount = amount + ? WHERE accountID = ?";
+	
+	//One transaction with both rows locked lowest account ID first so opposite transfers can't deadlock, retried if MariaDB still picks it as a victim
+	public List<Account> transferBetweenAccounts(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		for(int attempt = 1; ; attempt++) {
+			try (Connection connection = ConnectionUtil.getConnection()) {
+				connection.setAutoCommit(false);
 				try {
-					account = getAccountVia2IDs(clientID, accountID);
-				} catch (AccountClientMismatchException e) {
-					throw new AccountClientMismatchException();
+					List<Account> accounts = transfer(connection, fromClientID, fromAccountID, toClientID, toAccountID, amount);
+					connection.commit();
+					return accounts;
+				} catch (Exception e) {
+					connection.rollback();
+					throw e;
 				}
-				if (account.getAccountID() == -1){
-					throw new AccountNotFoundException ();
-				}
-				
-				String delete = "DELETE FROM accountTbl WHERE accountID = " + accountID + " AND clientID = " + clientID + ";";
-				Statement statement = connection.createStatement();
-				int rows = statement.executeUpdate(delete);
-				if(rows != 0) {
-					return account;
-				} else {
-					throw new couldNotConnectToDatabaseException("Something happened with the database, the Account exists, but it could not be deleted");
+			} catch (SQLException e) {
+				if(attempt >= MAX_TRANSFER_ATTEMPTS || !isRetryable(e)) {
+					throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
 				}
+				logger.info("Transfer from account " + fromAccountID + " to " + toAccountID + " hit " + e.getMessage() + ", trying again (attempt " + (attempt + 1) + ")");
+				backOff(attempt);
+			}
+		}
+	}
+	
+	private List<Account> transfer(Connection connection, int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws SQLException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		PreparedStatement lock = connection.prepareStatement(LOCK_ACCOUNT);
+		int[] fromRow = null;
+		int[] toRow = null;
+		for(int accountID : new int[] {Math.min(fromAccountID, toAccountID), Math.max(fromAccountID, toAccountID)}) {
+			lock.setInt(1, accountID);
+			ResultSet results = lock.executeQuery();
+			int[] row = results.next() ? new int[] {results.getInt("clientID"), results.getInt("amount")} : null;
+			if(accountID == fromAccountID) {
+				fromRow = row;
 			} else {
-				throw new ClientNotFoundException();
+				toRow = row;
 			}
-			
+		}
+		if(fromRow == null || fromRow[0] != fromClientID) {
+			throwMissingAccountException(connection, fromClientID, fromAccountID, null);
+		}
+		if(toRow == null || toRow[0] != toClientID) {
+			throwMissingAccountException(connection, toClientID, toAccountID, null);
+		}
+		if(fromRow[1] < amount) {
+			throw new InsufficientFundsException("Account " + fromAccountID + " has " + fromRow[1] + ", which isn't enough to take out " + amount);
+		}
+		//both updates go in one batch, which the driver sends in one round trip
+		PreparedStatement update = connection.prepareStatement(ADD_TO_AMOUNT);
+		update.setInt(1, -amount);
+		update.setInt(2, fromAccountID);
+		update.addBatch();
+		update.setInt(1, amount);
+		update.setInt(2, toAccountID);
+		update.addBatch();
+		update.executeBatch();
+		List<Account> accounts = new ArrayList<Account>(2);
+		accounts.add(new Account(fromAccountID, fromClientID, fromRow[1] - amount));
+		accounts.add(new Account(toAccountID, toClientID, toRow[1] + amount));
+		return accounts;
+	}
+	
+	//40001 is what MariaDB gives a deadlock victim (1213), 1205 is a lock wait timeout. Either way nothing was kept
+	static boolean isRetryable(SQLException e) {
+		return "40001".equals(e.getSQLState()) || e.getErrorCode() == 1213 || e.getErrorCode() == 1205;
+	}
+	
+	//a little random so the transfers that collided don't all come back at the same moment and collide again
+	private static void backOff(int attempt) throws couldNotConnectToDatabaseException {
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L << Math.min(attempt + 2, 8)));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new couldNotConnectToDatabaseException("Interrupted while waiting to try the transfer again");
+		}
+	}
+	
+	public Account deleteAccountVia2IDs (int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		try (Connection connection = ConnectionUtil.getConnection()) {
+			//RETURNING hands back the deleted row so the account doesn't have to be looked up before it's deleted
+			String delete = "DELETE FROM accountTbl WHERE accountID = ? AND clientID = ? RETURNING accountID, clientID, amount";
+			PreparedStatement prepStatement = connection.prepareStatement(delete);
+			prepStatement.setInt(1, accountID);
+			prepStatement.setInt(2, clientID);
+			ResultSet results = prepStatement.executeQuery();
+			if(results.next()) {
+				return new Account(results.getInt("accountID"), results.getInt("clientID"), results.getInt("amount"));
+			}
+			throwMissingAccountException(connection, clientID, accountID, null);
 		} catch (SQLException e) {
 			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
 		}
+		throw new couldNotConnectToDatabaseException("Something happened with the database, the Account exists, but it could not be deleted");
+	}
+	
+	
+	private boolean clientHasAccounts(Connection connection, int clientID) throws SQLException {
+		String checkClient = "SELECT EXISTS(SELECT 1 FROM accountTbl WHERE clientID = ?)";
+		PreparedStatement prepStatement = connection.prepareStatement(checkClient);
+		prepStatement.setInt(1, clientID);
+		ResultSet results = prepStatement.executeQuery();
+		return results.next() && results.getBoolean(1);
+	}
+	
+	
+	//Only called once an update or delete matched nothing, checks the client first and then who owns the account
+	private void throwMissingAccountException(Connection connection, int clientID, int accountID, String notFoundMessage) throws SQLException, ClientNotFoundException, AccountClientMismatchException, AccountNotFoundException {
+		String check = "SELECT EXISTS(SELECT 1 FROM accountTbl WHERE clientID = ?) AS clientExists, (SELECT clientID FROM accountTbl WHERE accountID = ?) AS ownerID";
+		PreparedStatement prepStatement = connection.prepareStatement(check);
+		prepStatement.setInt(1, clientID);
+		prepStatement.setInt(2, accountID);
+		ResultSet results = prepStatement.executeQuery();
+		if(!results.next() || !results.getBoolean("clientExists")) {
+			throw new ClientNotFoundException();
+		}
+		results.getInt("ownerID");
+		if(!results.wasNull()) {
+			throw new AccountClientMismatchException();
+		}
+		if(notFoundMessage == null) {
+			throw new AccountNotFoundException();
+		}
+		throw new AccountNotFoundException(notFoundMessage);
 	}
 }
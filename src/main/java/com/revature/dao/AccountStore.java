@@ -0,0 +1,84 @@
+package com.revature.dao;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+
+//What the services need from account storage, getAccountVia2IDs gives back ID -1 when nothing was found
+public interface AccountStore {
+
+	Account makeAccountForClient(int amount, int clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException;
+
+	//Makes the accounts (their IDs are ignored) and gives them back with new IDs in the same order
+	default List<Account> makeAccounts(List<Account> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		ArrayList<Account> made = new ArrayList<Account>(accounts.size());
+		for(Account account : accounts) {
+			made.add(makeAccountForClient(account.getAmount(), account.getClientID()));
+		}
+		return made;
+	}
+
+	List<Account> getAccountsViaClientID(int clientID) throws couldNotConnectToDatabaseException, AccountNotFoundException;
+
+	//Up to limit of the client's accounts with IDs above afterAccountID, in account ID order. Empty when there are none
+	default List<Account> getAccountsPage(int clientID, int afterAccountID, int limit) throws couldNotConnectToDatabaseException {
+		try {
+			return pageAfter(getAccountsViaClientID(clientID), afterAccountID, limit);
+		} catch (AccountNotFoundException e) {
+			return new ArrayList<Account>();
+		}
+	}
+
+	//Same as getAccountsPage, but only accounts with amounts between betweenLow and betweenHigh
+	default List<Account> getAccountsBetweenPage(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		try {
+			return pageAfter(getAccountsBetweenTwoValues(clientID, betweenLow, betweenHigh), afterAccountID, limit);
+		} catch (AccountNotFoundException e) {
+			return new ArrayList<Account>();
+		}
+	}
+
+	static List<Account> pageAfter(List<Account> accounts, int afterAccountID, int limit) {
+		ArrayList<Account> page = new ArrayList<Account>();
+		for(Account account : accounts) {
+			if(account.getAccountID() > afterAccountID) {
+				page.add(account);
+			}
+		}
+		page.sort(Comparator.comparingInt(Account::getAccountID));
+		return page.size() > limit ? new ArrayList<Account>(page.subList(0, limit)) : page;
+	}
+
+	Account getAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException;
+
+	List<Account> getAccountsBetweenTwoValues(int clientID, int betweenLow, int betweenHigh) throws couldNotConnectToDatabaseException, AccountNotFoundException, ClientNotFoundException;
+
+	Account updateAccountVia2IDs(int clientID, int accountID, int newAmount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException;
+
+	//Writes back amounts changed somewhere else first, so the client IDs are trusted and deleted accounts are skipped
+	default void updateAmounts(List<Account> accounts) throws couldNotConnectToDatabaseException {
+		for(Account account : accounts) {
+			try {
+				updateAccountVia2IDs(account.getClientID(), account.getAccountID(), account.getAmount());
+			} catch (AccountNotFoundException | AccountClientMismatchException | ClientNotFoundException e) {
+				//deleted after it was changed, nothing to write
+			}
+		}
+	}
+
+	//Adds delta in one step so concurrent changes can't overwrite each other, withdrawals can't go below zero
+	Account adjustAmountVia2IDs(int clientID, int accountID, int delta) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException;
+
+	//Moves amount as one change, gives back the account it came out of first
+	List<Account> transferBetweenAccounts(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException;
+
+	Account deleteAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException;
+
+}
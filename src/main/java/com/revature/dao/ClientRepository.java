@@ -1,5 +1,6 @@
 package com.revature.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Statement;
 import java.sql.PreparedStatement;
@@ -7,7 +8,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,40 +22,20 @@ import com.revature.exceptions.ClientAlreadyExistsException;
 import com.revature.exceptions.ClientNotFoundException;
 import com.revature.exceptions.couldNotConnectToDatabaseException;
 import com.revature.model.Client;
+import com.revature.util.ConfigUtil;
 import com.revature.util.ConnectionUtil;
 
-public class ClientRepository {
+public class ClientRepository implements ClientStore {
 	
 	private Logger logger = LoggerFactory.getLogger(ProjExceptionHandler.class);
 	
+	private static final int STREAM_FETCH_SIZE = ConfigUtil.getInt("client_stream_fetch_size", 500);
 	
+	static final String UPDATE_NAMES = "UPDATE clientTbl SET clientFirstName = ?, clientLastName = ? WHERE clientID = ?";
 	
 	public ClientRepository() throws couldNotConnectToDatabaseException{
-		//Creates the SQL tables to hold the clients and maybe their accounts, but I may also create an accountRepository
-		try(Connection connection = ConnectionUtil.getConnection()){
-			String closeAccountTable = "DROP TABLE IF EXISTS accountTbl";
-			//Want to start fresh with each instance, but I need to check to make sure that there are no foreign key dependencies
-			String closeClientTable = "DROP TABLE IF EXISTS clientTbl";
-			String createClientTable = "CREATE TABLE clientTbl (clientID INT NOT NULL AUTO_INCREMENT, clientFirstName VARCHAR(100) NOT NULL, clientLastName VARCHAR(100) NOT NULL, PRIMARY KEY(clientID));";
-			String populateClientTable1 = "INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES ('George', 'Lucas')";
-			String populateClientTable2 = "INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES ('Johnny', 'Depp')";
-			String populateClientTable3 = "INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES ('Owen', 'Wilson')";
-			String populateClientTable4 = "INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES ('Nicholas', 'Cage')";
-			Statement statement = connection.createStatement();
-			statement.addBatch(closeAccountTable);
-			statement.addBatch(closeClientTable);
-			statement.addBatch(createClientTable);
-			statement.addBatch(populateClientTable1);
-			statement.addBatch(populateClientTable2);
-			statement.addBatch(populateClientTable3);
-			statement.addBatch(populateClientTable4);
-			statement.executeBatch();
-			//Tried to include some confirmation that it worked, but tested it and it does and if something goes wrong, the try/catch will throw exception
-			logger.info("Created the clientTbl in the Client Repository");
-		} catch (SQLException e) {
-			throw new couldNotConnectToDatabaseException("An error occured with the SQL syntax");
-		} 
-		
+		//The tables are made and kept up to date by SchemaManager when the server starts, so there's nothing to set up here
+		logger.info("Created the Client Repository");
 	}
 	
 	public void closeRepository() throws SQLException {
@@ -62,9 +45,10 @@ public class ClientRepository {
 	public Client getClientById(int id) throws couldNotConnectToDatabaseException, ClientNotFoundException, ClientAlreadyExistsException {
 		Client client = null;
 		try(Connection connection = ConnectionUtil.getConnection()){
-			String sql = "SELECT * FROM clientTbl WHERE clientID = " + id;
-			Statement statement = connection.createStatement();
-			ResultSet results = statement.executeQuery(sql);
+			String sql = "SELECT clientID, clientFirstName, clientLastName FROM clientTbl WHERE clientID = ?";
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setInt(1, id);
+			ResultSet results = statement.executeQuery();
 			
 			if(results.next()) {
 				int clientID = results.getInt("clientID");
@@ -103,27 +87,52 @@ public class ClientRepository {
 	}
 	
 	
+	//Keyset paging, the primary key finds where the page starts so a late page costs the same as the first one
+	public List<Client> getClientsAfter(int afterID, int limit) throws couldNotConnectToDatabaseException {
+		ArrayList<Client> page = new ArrayList<Client>(limit);
+		try(Connection connection = ConnectionUtil.getConnection()){
+			String sql = "SELECT clientID, clientFirstName, clientLastName FROM clientTbl WHERE clientID > ? ORDER BY clientID LIMIT ?";
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setInt(1, afterID);
+			statement.setInt(2, limit);
+			ResultSet results = statement.executeQuery();
+			while(results.next()) {
+				page.add(new Client(results.getInt(1), results.getString(2), results.getString(3)));
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+		return page;
+	}
+	
+	//Forward only with a fetch size, so the driver streams the rows instead of reading the whole table first
+	public void streamAllClients(ClientConsumer consumer) throws couldNotConnectToDatabaseException, IOException {
+		try(Connection connection = ConnectionUtil.getConnection()){
+			String sql = "SELECT clientID, clientFirstName, clientLastName FROM clientTbl ORDER BY clientID";
+			PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(STREAM_FETCH_SIZE);
+			ResultSet results = statement.executeQuery();
+			while(results.next()) {
+				consumer.accept(new Client(results.getInt(1), results.getString(2), results.getString(3)));
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+	}
+	
 	public Client newClient(PostClientDTO client) throws SQLException, couldNotConnectToDatabaseException, ClientAddException {
 		//creates the new client while auto incrementing the ID
 		try(Connection connection = ConnectionUtil.getConnection()){
 			String prepStatement = "INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES (?, ?)";
-			PreparedStatement statement = connection.prepareStatement(prepStatement);
+			//the new ID comes back with the insert, so there's no second query to find it
+			PreparedStatement statement = connection.prepareStatement(prepStatement, Statement.RETURN_GENERATED_KEYS);
 			statement.setString(1, client.getFirstName());
 			statement.setString(2, client.getLastName());
 			int rows = statement.executeUpdate();
 			
-			if(rows != 0) {
-				String queryStatementString = "SELECT * FROM clientTbl WHERE clientFirstName = '" + client.getFirstName() + "' AND clientLastName = '" + client.getLastName() + "';";
-				Statement queryStatement = connection.createStatement();
-				ResultSet results = queryStatement.executeQuery(queryStatementString);
-				int id = -1;
-				//running a while loop to deal with the case where two clients happen to have the same first and last name so it
-				//outputs the correct id rather than the first, but returns a client with an id of -1 if something goes wrong
-				while(results.next()) {
-					id = results.getInt("clientID");
-				} 
-				
-				return new Client(id, client.getFirstName(), client.getLastName());
+			ResultSet results = statement.getGeneratedKeys();
+			if(rows != 0 && results.next()) {
+				return new Client(results.getInt(1), client.getFirstName(), client.getLastName());
 			} else {
 				throw new ClientAddException("Something went wrong and the client could not be added.");
 			}
@@ -133,6 +142,40 @@ public class ClientRepository {
 	}
 	
 	
+	//One batched insert in one transaction for the whole list, with the new IDs read back from the generated keys
+	public List<Client> newClients(List<PostClientDTO> clients) throws SQLException, couldNotConnectToDatabaseException, ClientAddException {
+		ArrayList<Client> added = new ArrayList<Client>(clients.size());
+		if(clients.isEmpty()) {
+			return added;
+		}
+		try(Connection connection = ConnectionUtil.getConnection()){
+			connection.setAutoCommit(false);
+			try {
+				PreparedStatement statement = connection.prepareStatement("INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+				for(PostClientDTO client : clients) {
+					statement.setString(1, client.getFirstName());
+					statement.setString(2, client.getLastName());
+					statement.addBatch();
+				}
+				statement.executeBatch();
+				ResultSet results = statement.getGeneratedKeys();
+				for(PostClientDTO client : clients) {
+					if(!results.next()) {
+						throw new ClientAddException("Only " + added.size() + " of " + clients.size() + " new client IDs came back");
+					}
+					added.add(new Client(results.getInt(1), client.getFirstName(), client.getLastName()));
+				}
+				connection.commit();
+			} catch (SQLException | ClientAddException e) {
+				connection.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+		return added;
+	}
+	
 	public Client newClientByID(int clientID, String firstName, String lastName) throws SQLException, ClientAlreadyExistsException, couldNotConnectToDatabaseException {
 		//creates the new client with a specific ID
 		try(Connection connection = ConnectionUtil.getConnection()){
@@ -160,11 +203,12 @@ public class ClientRepository {
 	public Client updateClient(int id, String newFirstName, String newLastName) throws SQLException, couldNotConnectToDatabaseException, ClientAlreadyExistsException, ClientNotFoundException {
 		//updates the first and last name of a user by their ID
 		try(Connection connection = ConnectionUtil.getConnection()){
-			Statement statement = connection.createStatement();
-			String firstNameStatement = "UPDATE clientTbl SET clientFirstName = '" + newFirstName + "' WHERE clientID = " + id;
-			String lasNameStatement = "UPDATE clientTbl SET clientLastName = '" + newLastName + "' WHERE clientID = " + id;
-			int rows = statement.executeUpdate(firstNameStatement);
-			rows += statement.executeUpdate(lasNameStatement);
+			//both names in one statement, so nobody can read the client with only one of them changed
+			PreparedStatement statement = connection.prepareStatement(UPDATE_NAMES);
+			statement.setString(1, newFirstName);
+			statement.setString(2, newLastName);
+			statement.setInt(3, id);
+			int rows = statement.executeUpdate();
 			if(rows >0) {
 				return new Client(id, newFirstName, newLastName);
 			} else {
@@ -179,4 +223,100 @@ public class ClientRepository {
 	}
 
 	
+	//One batch in one transaction, gives back the clients that were actually there to update
+	public List<Client> updateClients(List<Client> clients) throws SQLException, couldNotConnectToDatabaseException {
+		ArrayList<Client> updated = new ArrayList<Client>(clients.size());
+		try(Connection connection = ConnectionUtil.getConnection()){
+			connection.setAutoCommit(false);
+			try {
+				PreparedStatement statement = connection.prepareStatement(UPDATE_NAMES);
+				for(Client client : clients) {
+					statement.setString(1, client.getFirstName());
+					statement.setString(2, client.getLastName());
+					statement.setInt(3, client.getId());
+					statement.addBatch();
+				}
+				int[] counts = statement.executeBatch();
+				boolean countsKnown = true;
+				for(int count : counts) {
+					if(count == Statement.SUCCESS_NO_INFO) {
+						countsKnown = false;
+					}
+				}
+				if(countsKnown) {
+					for(int i = 0; i < counts.length; i++) {
+						if(counts[i] > 0) {
+							updated.add(clients.get(i));
+						}
+					}
+				} else {
+					//a batch the driver sent in bulk can come back without per-row counts, so one lookup finds which of the clients exist
+					List<Integer> ids = new ArrayList<Integer>(clients.size());
+					for(Client client : clients) {
+						ids.add(client.getId());
+					}
+					Set<Integer> existing = existingClientIDs(connection, ids);
+					for(Client client : clients) {
+						if(existing.contains(client.getId())) {
+							updated.add(client);
+						}
+					}
+				}
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the database. Exception message is: " + e.getMessage());
+		}
+		return updated;
+	}
+	
+	//IN lists only come in these sizes, padded with the last ID, so the statement cache only sees three of them
+	static final int[] IN_LIST_SIZES = {1, 16, 128};
+	private static final String[] EXISTING_CLIENTS = new String[IN_LIST_SIZES.length];
+	static {
+		for(int i = 0; i < IN_LIST_SIZES.length; i++) {
+			StringBuilder sql = new StringBuilder("SELECT clientID FROM clientTbl WHERE clientID IN (?");
+			for(int j = 1; j < IN_LIST_SIZES[i]; j++) {
+				sql.append(", ?");
+			}
+			EXISTING_CLIENTS[i] = sql.append(")").toString();
+		}
+	}
+	
+	//the smallest list size that fits what's left, or the biggest one when nothing does
+	static int inListSize(int left) {
+		for(int i = 0; i < IN_LIST_SIZES.length; i++) {
+			if(left <= IN_LIST_SIZES[i]) {
+				return i;
+			}
+		}
+		return IN_LIST_SIZES.length - 1;
+	}
+	
+	static Set<Integer> existingClientIDs(Connection connection, List<Integer> clientIDs) throws SQLException {
+		HashSet<Integer> existing = new HashSet<Integer>();
+		PreparedStatement[] statements = new PreparedStatement[IN_LIST_SIZES.length];
+		int from = 0;
+		while(from < clientIDs.size()) {
+			int size = inListSize(clientIDs.size() - from);
+			if(statements[size] == null) {
+				statements[size] = connection.prepareStatement(EXISTING_CLIENTS[size]);
+			}
+			PreparedStatement statement = statements[size];
+			int to = Math.min(from + IN_LIST_SIZES[size], clientIDs.size());
+			for(int i = 0; i < IN_LIST_SIZES[size]; i++) {
+				statement.setInt(i + 1, clientIDs.get(Math.min(from + i, to - 1)));
+			}
+			ResultSet results = statement.executeQuery();
+			while(results.next()) {
+				existing.add(results.getInt(1));
+			}
+			from = to;
+		}
+		return existing;
+	}
+	
 }
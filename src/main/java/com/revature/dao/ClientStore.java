@@ -0,0 +1,75 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.ClientAddException;
+import com.revature.exceptions.ClientAlreadyExistsException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Client;
+
+//What the services need from client storage, ClientRepository is the MariaDB version
+public interface ClientStore {
+
+	void closeRepository() throws SQLException;
+
+	Client getClientById(int id) throws couldNotConnectToDatabaseException, ClientNotFoundException, ClientAlreadyExistsException;
+
+	List<Client> getAllClients() throws couldNotConnectToDatabaseException;
+
+	//Handed each client as it's read, it can write the client out somewhere without the whole table being held
+	interface ClientConsumer {
+		void accept(Client client) throws IOException;
+	}
+
+	//Up to limit clients with IDs above afterID, in ID order
+	default List<Client> getClientsAfter(int afterID, int limit) throws couldNotConnectToDatabaseException {
+		ArrayList<Client> page = new ArrayList<Client>();
+		for(Client client : getAllClients()) {
+			if(client.getId() > afterID) {
+				page.add(client);
+			}
+		}
+		page.sort(Comparator.comparingInt(Client::getId));
+		return page.size() > limit ? new ArrayList<Client>(page.subList(0, limit)) : page;
+	}
+
+	//Every client in ID order, one at a time
+	default void streamAllClients(ClientConsumer consumer) throws couldNotConnectToDatabaseException, IOException {
+		for(Client client : getAllClients()) {
+			consumer.accept(client);
+		}
+	}
+
+	Client newClient(PostClientDTO client) throws SQLException, couldNotConnectToDatabaseException, ClientAddException;
+
+	//Adds the clients and gives them back with new IDs in the same order
+	default List<Client> newClients(List<PostClientDTO> clients) throws SQLException, couldNotConnectToDatabaseException, ClientAddException {
+		ArrayList<Client> added = new ArrayList<Client>(clients.size());
+		for(PostClientDTO client : clients) {
+			added.add(newClient(client));
+		}
+		return added;
+	}
+
+	Client newClientByID(int clientID, String firstName, String lastName) throws SQLException, ClientAlreadyExistsException, couldNotConnectToDatabaseException;
+
+	Client updateClient(int id, String newFirstName, String newLastName) throws SQLException, couldNotConnectToDatabaseException, ClientAlreadyExistsException, ClientNotFoundException;
+
+	//Gives back the clients that existed and were updated. Stores that can't batch just update them one at a time
+	default List<Client> updateClients(List<Client> clients) throws SQLException, couldNotConnectToDatabaseException, ClientAlreadyExistsException, ClientNotFoundException {
+		ArrayList<Client> updated = new ArrayList<Client>(clients.size());
+		for(Client client : clients) {
+			if(updateClient(client.getId(), client.getFirstName(), client.getLastName()) != null) {
+				updated.add(client);
+			}
+		}
+		return updated;
+	}
+
+}
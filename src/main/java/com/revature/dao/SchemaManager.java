@@ -0,0 +1,127 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.util.ConnectionUtil;
+
+//Applies each schema migration once at startup and records it in schemaVersion, seeding only with db_seed
+public class SchemaManager {
+
+	private static Logger logger = LoggerFactory.getLogger(SchemaManager.class);
+
+	static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schemaVersion (version INT NOT NULL, description VARCHAR(200) NOT NULL, appliedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY(version))";
+	static final String CURRENT_VERSION = "SELECT COALESCE(MAX(version), 0) FROM schemaVersion";
+	static final String RECORD_VERSION = "INSERT IGNORE INTO schemaVersion (version, description) VALUES (?, ?)";
+
+	static class Migration {
+		final int version;
+		final String description;
+		final List<String> statements;
+
+		Migration(int version, String description, String... statements) {
+			this.version = version;
+			this.description = description;
+			this.statements = Arrays.asList(statements);
+		}
+	}
+
+	static final List<Migration> MIGRATIONS = Arrays.asList(
+			new Migration(1, "Create the client and account tables",
+					"CREATE TABLE IF NOT EXISTS clientTbl (clientID INT NOT NULL AUTO_INCREMENT, clientFirstName VARCHAR(100) NOT NULL, clientLastName VARCHAR(100) NOT NULL, PRIMARY KEY(clientID))",
+					"CREATE TABLE IF NOT EXISTS accountTbl (accountID INT NOT NULL AUTO_INCREMENT, clientID INT NOT NULL, amount INT, PRIMARY KEY(accountID), FOREIGN KEY (clientID) REFERENCES clientTbl(clientID))"),
+			//every account query is by client, and the range query is by client and then amount
+			new Migration(2, "Index accounts by client and amount",
+					"CREATE INDEX IF NOT EXISTS accountClientAmountIdx ON accountTbl (clientID, amount)"),
+			//the listings and keyset pages are by client in account ID order, which the amount index can't give without a filesort
+			new Migration(3, "Index accounts by client and account ID",
+					"CREATE INDEX IF NOT EXISTS accountClientIDIdx ON accountTbl (clientID, accountID, amount)"));
+
+	public static int latestVersion() {
+		return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+	}
+
+	public static void prepare(boolean seed) throws couldNotConnectToDatabaseException {
+		try(Connection connection = ConnectionUtil.getConnection()) {
+			migrate(connection);
+			if(seed) {
+				seed(connection);
+			}
+		} catch (SQLException e) {
+			throw new couldNotConnectToDatabaseException("The database schema could not be brought up to date. Exception message is: " + e.getMessage());
+		}
+	}
+
+	//Gives back how many migrations were applied
+	static int migrate(Connection connection) throws SQLException {
+		Statement statement = connection.createStatement();
+		statement.execute(CREATE_VERSION_TABLE);
+		int current = 0;
+		ResultSet results = statement.executeQuery(CURRENT_VERSION);
+		if(results.next()) {
+			current = results.getInt(1);
+		}
+		int applied = 0;
+		for(Migration migration : MIGRATIONS) {
+			if(migration.version <= current) {
+				continue;
+			}
+			for(String sql : migration.statements) {
+				statement.execute(sql);
+			}
+			PreparedStatement record = connection.prepareStatement(RECORD_VERSION);
+			record.setInt(1, migration.version);
+			record.setString(2, migration.description);
+			record.executeUpdate();
+			logger.info("Applied schema migration " + migration.version + ": " + migration.description);
+			applied++;
+		}
+		if(applied == 0) {
+			logger.info("The database schema is already at version " + current);
+		}
+		return applied;
+	}
+
+	//The same sample clients and accounts the repositories used to put in on every start
+	static boolean seed(Connection connection) throws SQLException {
+		ResultSet results = connection.createStatement().executeQuery("SELECT EXISTS(SELECT 1 FROM clientTbl)");
+		if(results.next() && results.getBoolean(1)) {
+			logger.info("Skipped seeding since clientTbl already has clients");
+			return false;
+		}
+		PreparedStatement clients = connection.prepareStatement("INSERT INTO clientTbl (clientFirstName, clientLastName) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+		String[][] names = {{"George", "Lucas"}, {"Johnny", "Depp"}, {"Owen", "Wilson"}, {"Nicholas", "Cage"}};
+		for(String[] name : names) {
+			clients.setString(1, name[0]);
+			clients.setString(2, name[1]);
+			clients.addBatch();
+		}
+		clients.executeBatch();
+		//the table can be empty but have used IDs before, so the accounts go to whatever IDs the clients were given
+		int[] clientIDs = new int[names.length];
+		ResultSet keys = clients.getGeneratedKeys();
+		for(int i = 0; i < clientIDs.length && keys.next(); i++) {
+			clientIDs[i] = keys.getInt(1);
+		}
+		PreparedStatement accounts = connection.prepareStatement("INSERT INTO accountTbl (clientID, amount) VALUES (?, ?)");
+		int[][] rows = {{0, 500}, {0, 5000}, {0, 1500}, {0, 2000}, {1, 4000}, {1, 2500}, {2, 3000}};
+		for(int[] row : rows) {
+			accounts.setInt(1, clientIDs[row[0]]);
+			accounts.setInt(2, row[1]);
+			accounts.addBatch();
+		}
+		accounts.executeBatch();
+		logger.info("Seeded clientTbl and accountTbl with the sample data");
+		return true;
+	}
+
+}
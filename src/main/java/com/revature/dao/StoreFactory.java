@@ -0,0 +1,158 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dao.journal.InMemoryJournalTarget;
+import com.revature.dao.journal.JournaledAccountStore;
+import com.revature.dao.journal.JournaledClientStore;
+import com.revature.dao.journal.MutationJournal;
+import com.revature.dao.journal.WriteBehindAccountStore;
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.dao.memory.TransferEngine;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.util.ConfigUtil;
+
+//Picks the storage engine at startup from storage_engine, journal_enabled, transfer_engine_enabled and write_behind_enabled
+public class StoreFactory {
+
+	private static Logger logger = LoggerFactory.getLogger(StoreFactory.class);
+
+	public static final String MARIADB = "mariadb";
+	public static final String MEMORY = "memory";
+	public static final String OFF_HEAP = "offheap";
+
+	private static MutationJournal journal;
+	//the journaled account store has to be made along with the client store, it's held here until it's asked for
+	private static JournaledAccountStore journaledAccountStore;
+	private static TransferEngine transferEngine;
+	private static WriteBehindAccountStore writeBehindStore;
+
+	public static String getEngine() {
+		String engine = ConfigUtil.getString("storage_engine", MARIADB).toLowerCase();
+		if(!engine.equals(MARIADB) && !engine.equals(MEMORY) && !engine.equals(OFF_HEAP)) {
+			throw new IllegalArgumentException("storage_engine must be " + MARIADB + ", " + MEMORY + " or " + OFF_HEAP + ". Found " + engine);
+		}
+		return engine;
+	}
+
+	public static ClientStore createClientStore() throws couldNotConnectToDatabaseException {
+		String engine = getEngine();
+		logger.info("Using the " + engine + " storage engine for clients");
+		if(!engine.equals(MARIADB)) {
+			InMemoryClientStore clientStore = new InMemoryClientStore(ConfigUtil.getInt("memory_store_stripes", 64));
+			if(ConfigUtil.getBoolean("journal_enabled", false)) {
+				return openJournal(clientStore);
+			}
+			clientStore.seed();
+			return clientStore;
+		}
+		return new ClientRepository();
+	}
+
+	//The client store has to be made first since accounts can't exist without their clients
+	public static AccountStore createAccountStore(ClientStore clientStore) throws couldNotConnectToDatabaseException {
+		if(clientStore == null) {
+			throw new couldNotConnectToDatabaseException("The Account Repository was created before the Client Repository");
+		}
+		if(clientStore instanceof ClientRepository) {
+			AccountRepository accountRepository = new AccountRepository((ClientRepository) clientStore);
+			boolean writeBehind = ConfigUtil.getBoolean("write_behind_enabled", false);
+			if(writeBehind && ConfigUtil.getBoolean("transfer_engine_enabled", false)) {
+				throw new IllegalArgumentException("write_behind_enabled and transfer_engine_enabled can't both be on, they both hold account amounts back from MariaDB");
+			}
+			if(writeBehind) {
+				return openWriteBehind(accountRepository);
+			}
+			if(ConfigUtil.getBoolean("transfer_engine_enabled", false)) {
+				transferEngine = new TransferEngine(accountRepository, ConfigUtil.getInt("engine_stripes", 1024),
+						ConfigUtil.getLong("engine_flush_interval_ms", 1000), ConfigUtil.getInt("engine_max_accounts", 1000000));
+				return transferEngine;
+			}
+			return accountRepository;
+		}
+		if(clientStore instanceof JournaledClientStore) {
+			return journaledAccountStore;
+		}
+		InMemoryAccountStore accountStore = newInMemoryAccountStore(clientStore);
+		accountStore.seed();
+		return accountStore;
+	}
+
+	//memory_store_initial_capacity lets big load tests size the tables up front instead of growing them as they go
+	private static InMemoryAccountStore newInMemoryAccountStore(ClientStore clientStore) {
+		return new InMemoryAccountStore(clientStore, ConfigUtil.getInt("memory_store_stripes", 64),
+				ConfigUtil.getInt("memory_store_initial_capacity", 1024), getEngine().equals(OFF_HEAP));
+	}
+
+	//Rebuilds both stores from the journal, or seeds them straight into a first snapshot when there isn't one
+	private static ClientStore openJournal(InMemoryClientStore clientStore) throws couldNotConnectToDatabaseException {
+		InMemoryAccountStore accountStore = newInMemoryAccountStore(clientStore);
+		journal = new MutationJournal(Paths.get(ConfigUtil.getString("journal_dir", "data")),
+				new InMemoryJournalTarget(clientStore, accountStore),
+				ConfigUtil.getInt("journal_map_size", 64 * 1024 * 1024),
+				ConfigUtil.getInt("journal_sync_batch", 256),
+				ConfigUtil.getLong("journal_sync_interval_ms", 10),
+				ConfigUtil.getBoolean("journal_sync_wait", true),
+				ConfigUtil.getLong("journal_snapshot_bytes", 256L * 1024 * 1024));
+		boolean recovered;
+		try {
+			recovered = journal.open();
+		} catch (IOException e) {
+			throw new couldNotConnectToDatabaseException("The journal could not be opened. Exception message is: " + e.getMessage());
+		}
+		JournaledClientStore journaledClientStore = new JournaledClientStore(clientStore, journal);
+		journaledAccountStore = new JournaledAccountStore(accountStore, journal);
+		if(!recovered) {
+			clientStore.seed();
+			accountStore.seed();
+			try {
+				journal.compact();
+			} catch (IOException e) {
+				throw new couldNotConnectToDatabaseException("The journal could not be written. Exception message is: " + e.getMessage());
+			}
+		}
+		logger.info("Recovered " + clientStore.getAllClients().size() + " clients and " + accountStore.size() + " accounts from the journal");
+		return journaledClientStore;
+	}
+
+	private static AccountStore openWriteBehind(AccountStore accountRepository) throws couldNotConnectToDatabaseException {
+		writeBehindStore = new WriteBehindAccountStore(accountRepository,
+				ConfigUtil.getInt("write_behind_queue_size", 10000),
+				ConfigUtil.getInt("write_behind_batch_size", 500),
+				ConfigUtil.getLong("write_behind_max_latency_ms", 50),
+				ConfigUtil.getLong("write_behind_offer_timeout_ms", 1000),
+				ConfigUtil.getLong("write_behind_compact_bytes", 1024 * 1024),
+				ConfigUtil.getInt("write_behind_owner_cache_size", 100000));
+		MutationJournal writeBehindJournal = new MutationJournal(Paths.get(ConfigUtil.getString("write_behind_dir", "data/write-behind")),
+				writeBehindStore.journalTarget(),
+				ConfigUtil.getInt("write_behind_map_size", 4 * 1024 * 1024),
+				ConfigUtil.getInt("journal_sync_batch", 256),
+				ConfigUtil.getLong("journal_sync_interval_ms", 10),
+				true, 0);
+		try {
+			writeBehindStore.open(writeBehindJournal);
+		} catch (IOException e) {
+			throw new couldNotConnectToDatabaseException("The write-behind journal could not be opened. Exception message is: " + e.getMessage());
+		}
+		return writeBehindStore;
+	}
+
+	//Writes out anything the stores are still holding on to, has to run before the connection pool is closed
+	public static void closeStores() {
+		if(transferEngine != null) {
+			transferEngine.close();
+		}
+		if(writeBehindStore != null) {
+			writeBehindStore.close();
+		}
+		if(journal != null) {
+			journal.close();
+		}
+	}
+
+}
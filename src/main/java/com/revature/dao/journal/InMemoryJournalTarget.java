@@ -0,0 +1,54 @@
+package com.revature.dao.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.model.Client;
+
+//Lets the journal rebuild the in-memory stores on startup and copy them out when it takes a snapshot
+public class InMemoryJournalTarget implements MutationJournal.Target {
+
+	private final InMemoryClientStore clientStore;
+	private final InMemoryAccountStore accountStore;
+
+	public InMemoryJournalTarget(InMemoryClientStore clientStore, InMemoryAccountStore accountStore) {
+		this.clientStore = clientStore;
+		this.accountStore = accountStore;
+	}
+
+	@Override
+	public void clientSaved(int clientID, String firstName, String lastName) {
+		clientStore.restoreClient(clientID, firstName, lastName);
+	}
+
+	@Override
+	public void accountSaved(int accountID, int clientID, int amount) {
+		accountStore.restoreAccount(accountID, clientID, amount);
+	}
+
+	@Override
+	public void accountDeleted(int accountID, int clientID) {
+		accountStore.removeAccount(accountID, clientID);
+	}
+
+	@Override
+	public void writeSnapshot(MutationJournal.SnapshotWriter writer) throws IOException {
+		for(Client client : clientStore.getAllClients()) {
+			writer.client(client.getId(), client.getFirstName(), client.getLastName());
+		}
+		try {
+			accountStore.forEachAccount((aID, cID, amount) -> {
+				try {
+					writer.account(aID, cID, amount);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+}
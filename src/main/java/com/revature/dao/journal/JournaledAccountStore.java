@@ -0,0 +1,227 @@
+package com.revature.dao.journal;
+
+import static com.revature.dao.journal.JournaledClientStore.journalException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.dao.AccountStore;
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+
+//Checks each account change against the store, journals it and then makes it, one client at a time
+public class JournaledAccountStore implements AccountStore {
+
+	private final InMemoryAccountStore accountStore;
+	private final MutationJournal journal;
+	private final Object[] clientLocks = new Object[64];
+
+	public JournaledAccountStore(InMemoryAccountStore accountStore, MutationJournal journal) {
+		this.accountStore = accountStore;
+		this.journal = journal;
+		for(int i = 0; i < clientLocks.length; i++) {
+			clientLocks[i] = new Object();
+		}
+	}
+
+	public InMemoryAccountStore getStore() {
+		return accountStore;
+	}
+
+	private Object lockFor(int clientID) {
+		return clientLocks[clientID & (clientLocks.length - 1)];
+	}
+
+	//The client's account as it is now, or null if the client doesn't have it
+	private Account current(int clientID, int accountID) {
+		try {
+			Account account = accountStore.getAccountVia2IDs(clientID, accountID);
+			return account.getAccountID() == -1 ? null : account;
+		} catch (AccountClientMismatchException e) {
+			return null;
+		}
+	}
+
+	//A new account gets an ID nobody else has, so it doesn't need the client lock
+	@Override
+	public Account makeAccountForClient(int amount, int clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		int accountID;
+		long seq;
+		journal.beginMutation();
+		try {
+			accountStore.checkClientExists(clientID, "Tried to make an account for client with ID " + clientID + "but client couldn't be found");
+			accountID = accountStore.reserveAccountID();
+			seq = journal.accountSaved(accountID, clientID, amount);
+			accountStore.restoreAccount(accountID, clientID, amount);
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return new Account(accountID, clientID, amount);
+	}
+
+	//If the journal fails part way the accounts already recorded are kept, the same ones a restart would bring back
+	@Override
+	public List<Account> makeAccounts(List<Account> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		ArrayList<Account> made = new ArrayList<Account>(accounts.size());
+		long seq = 0;
+		journal.beginMutation();
+		try {
+			for(Account account : accounts) {
+				accountStore.checkClientExists(account.getClientID(), "Tried to make accounts for client with ID " + account.getClientID() + " but client couldn't be found");
+			}
+			for(Account account : accounts) {
+				int accountID = accountStore.reserveAccountID();
+				seq = journal.accountSaved(accountID, account.getClientID(), account.getAmount());
+				accountStore.restoreAccount(accountID, account.getClientID(), account.getAmount());
+				made.add(new Account(accountID, account.getClientID(), account.getAmount()));
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return made;
+	}
+
+	@Override
+	public List<Account> getAccountsViaClientID(int clientID) throws couldNotConnectToDatabaseException, AccountNotFoundException {
+		return accountStore.getAccountsViaClientID(clientID);
+	}
+
+	@Override
+	public List<Account> getAccountsPage(int clientID, int afterAccountID, int limit) {
+		return accountStore.getAccountsPage(clientID, afterAccountID, limit);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenPage(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) throws ClientNotFoundException {
+		return accountStore.getAccountsBetweenPage(clientID, betweenLow, betweenHigh, afterAccountID, limit);
+	}
+
+	@Override
+	public Account getAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException {
+		return accountStore.getAccountVia2IDs(clientID, accountID);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenTwoValues(int clientID, int betweenLow, int betweenHigh) throws couldNotConnectToDatabaseException, AccountNotFoundException, ClientNotFoundException {
+		return accountStore.getAccountsBetweenTwoValues(clientID, betweenLow, betweenHigh);
+	}
+
+	@Override
+	public Account updateAccountVia2IDs(int clientID, int accountID, int newAmount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		Account account;
+		long seq;
+		journal.beginMutation();
+		try {
+			synchronized (lockFor(clientID)) {
+				if(current(clientID, accountID) == null) {
+					return accountStore.updateAccountVia2IDs(clientID, accountID, newAmount);
+				}
+				seq = journal.accountSaved(accountID, clientID, newAmount);
+				account = accountStore.updateAccountVia2IDs(clientID, accountID, newAmount);
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return account;
+	}
+
+	@Override
+	public Account adjustAmountVia2IDs(int clientID, int accountID, int delta) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		Account account;
+		long seq;
+		journal.beginMutation();
+		try {
+			synchronized (lockFor(clientID)) {
+				Account current = current(clientID, accountID);
+				long newAmount = current == null ? 0 : (long) current.getAmount() + delta;
+				if(current == null || (delta < 0 && newAmount < 0) || newAmount > Integer.MAX_VALUE) {
+					return accountStore.adjustAmountVia2IDs(clientID, accountID, delta);
+				}
+				//the journal gets the resulting amount, so replaying it twice can't apply the change twice
+				seq = journal.accountSaved(accountID, clientID, (int) newAmount);
+				account = accountStore.adjustAmountVia2IDs(clientID, accountID, delta);
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return account;
+	}
+
+	@Override
+	public List<Account> transferBetweenAccounts(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		//taken in index order like the store's own stripes, so two transfers going opposite ways can't deadlock here
+		int fromLock = fromClientID & (clientLocks.length - 1);
+		int toLock = toClientID & (clientLocks.length - 1);
+		List<Account> accounts;
+		long seq;
+		journal.beginMutation();
+		try {
+			synchronized (clientLocks[Math.min(fromLock, toLock)]) {
+				synchronized (clientLocks[Math.max(fromLock, toLock)]) {
+					Account from = current(fromClientID, fromAccountID);
+					Account to = current(toClientID, toAccountID);
+					if(from == null || to == null || from.getAmount() < amount || (long) to.getAmount() + amount > Integer.MAX_VALUE) {
+						return accountStore.transferBetweenAccounts(fromClientID, fromAccountID, toClientID, toAccountID, amount);
+					}
+					seq = journal.transferSaved(fromAccountID, fromClientID, from.getAmount() - amount, toAccountID, toClientID, to.getAmount() + amount);
+					accounts = accountStore.transferBetweenAccounts(fromClientID, fromAccountID, toClientID, toAccountID, amount);
+				}
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return accounts;
+	}
+
+	@Override
+	public Account deleteAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		Account account;
+		long seq;
+		journal.beginMutation();
+		try {
+			synchronized (lockFor(clientID)) {
+				if(current(clientID, accountID) == null) {
+					return accountStore.deleteAccountVia2IDs(clientID, accountID);
+				}
+				seq = journal.accountDeleted(accountID, clientID);
+				account = accountStore.deleteAccountVia2IDs(clientID, accountID);
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return account;
+	}
+
+	private void awaitSync(long seq) throws couldNotConnectToDatabaseException {
+		try {
+			journal.awaitSync(seq);
+		} catch (IOException e) {
+			throw journalException(e);
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.revature.dao.journal;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.revature.dao.ClientStore;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.ClientAddException;
+import com.revature.exceptions.ClientAlreadyExistsException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Client;
+
+//Journals each client change before it's made in memory, one change per client at a time
+public class JournaledClientStore implements ClientStore {
+
+	private final InMemoryClientStore clientStore;
+	private final MutationJournal journal;
+	private final Object[] clientLocks = new Object[64];
+
+	public JournaledClientStore(InMemoryClientStore clientStore, MutationJournal journal) {
+		this.clientStore = clientStore;
+		this.journal = journal;
+		for(int i = 0; i < clientLocks.length; i++) {
+			clientLocks[i] = new Object();
+		}
+	}
+
+	public InMemoryClientStore getStore() {
+		return clientStore;
+	}
+
+	private Object lockFor(int clientID) {
+		return clientLocks[clientID & (clientLocks.length - 1)];
+	}
+
+	@Override
+	public void closeRepository() throws SQLException {
+		clientStore.closeRepository();
+	}
+
+	@Override
+	public Client getClientById(int id) throws couldNotConnectToDatabaseException, ClientNotFoundException, ClientAlreadyExistsException {
+		return clientStore.getClientById(id);
+	}
+
+	@Override
+	public List<Client> getAllClients() throws couldNotConnectToDatabaseException {
+		return clientStore.getAllClients();
+	}
+
+	@Override
+	public List<Client> getClientsAfter(int afterID, int limit) {
+		return clientStore.getClientsAfter(afterID, limit);
+	}
+
+	@Override
+	public void streamAllClients(ClientConsumer consumer) throws IOException {
+		clientStore.streamAllClients(consumer);
+	}
+
+	@Override
+	public Client newClient(PostClientDTO client) throws SQLException, couldNotConnectToDatabaseException, ClientAddException {
+		Client newClient;
+		long seq;
+		journal.beginMutation();
+		try {
+			if(client.getFirstName() == null || client.getLastName() == null) {
+				//turned down by the store the way it always has been
+				return clientStore.newClient(client);
+			}
+			//a new client gets an ID nobody else has, so it doesn't need the client lock
+			int clientID = clientStore.reserveClientID();
+			seq = journal.clientSaved(clientID, client.getFirstName(), client.getLastName());
+			clientStore.restoreClient(clientID, client.getFirstName(), client.getLastName());
+			newClient = new Client(clientID, client.getFirstName(), client.getLastName());
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return newClient;
+	}
+
+	@Override
+	public Client newClientByID(int clientID, String firstName, String lastName) throws SQLException, ClientAlreadyExistsException, couldNotConnectToDatabaseException {
+		Client newClient;
+		long seq;
+		journal.beginMutation();
+		try {
+			synchronized (lockFor(clientID)) {
+				if(clientStore.getClientById(clientID) != null) {
+					return clientStore.newClientByID(clientID, firstName, lastName);
+				}
+				seq = journal.clientSaved(clientID, firstName, lastName);
+				newClient = clientStore.newClientByID(clientID, firstName, lastName);
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return newClient;
+	}
+
+	@Override
+	public Client updateClient(int id, String newFirstName, String newLastName) throws SQLException, couldNotConnectToDatabaseException, ClientAlreadyExistsException, ClientNotFoundException {
+		Client updatedClient;
+		long seq;
+		journal.beginMutation();
+		try {
+			synchronized (lockFor(id)) {
+				if(clientStore.getClientById(id) == null) {
+					return null;
+				}
+				seq = journal.clientSaved(id, newFirstName, newLastName);
+				updatedClient = clientStore.updateClient(id, newFirstName, newLastName);
+			}
+		} catch (IOException e) {
+			throw journalException(e);
+		} finally {
+			journal.endMutation();
+		}
+		awaitSync(seq);
+		return updatedClient;
+	}
+
+	//waited on after the locks are let go, so other writers can join the same sync
+	private void awaitSync(long seq) throws couldNotConnectToDatabaseException {
+		try {
+			journal.awaitSync(seq);
+		} catch (IOException e) {
+			throw journalException(e);
+		}
+	}
+
+	static couldNotConnectToDatabaseException journalException(IOException e) {
+		return new couldNotConnectToDatabaseException("Something happened with the journal. Exception message is: " + e.getMessage());
+	}
+
+}
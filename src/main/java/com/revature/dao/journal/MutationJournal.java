@@ -0,0 +1,466 @@
+package com.revature.dao.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+//Append-only memory mapped journal of [length][crc32][payload] records, synced in groups and compacted into snapshots
+public class MutationJournal {
+
+	private static Logger logger = LoggerFactory.getLogger(MutationJournal.class);
+
+	static final byte CLIENT_SAVED = 1;
+	static final byte ACCOUNT_SAVED = 2;
+	static final byte ACCOUNT_DELETED = 3;
+	static final byte TRANSFER_SAVED = 4;
+	//ACCOUNT_DELETED plus the client's ID, older journals with plain ACCOUNT_DELETED still replay
+	static final byte CLIENT_ACCOUNT_DELETED = 5;
+
+	private static final int SNAPSHOT_MAGIC = 0x50304A53;
+	private static final int FRAME_HEADER = 8;
+
+	//What the journal is rebuilding on recovery and copying out when it takes a snapshot
+	public interface Target {
+		void clientSaved(int clientID, String firstName, String lastName);
+
+		void accountSaved(int accountID, int clientID, int amount);
+
+		//clientID is -1 for records written before deletes carried it
+		void accountDeleted(int accountID, int clientID);
+
+		void writeSnapshot(SnapshotWriter writer) throws IOException;
+	}
+
+	public static class SnapshotWriter {
+		private final DataOutputStream out;
+		private int clients;
+		private int accounts;
+
+		private SnapshotWriter(DataOutputStream out) {
+			this.out = out;
+		}
+
+		public void client(int clientID, String firstName, String lastName) throws IOException {
+			out.writeByte(CLIENT_SAVED);
+			out.writeInt(clientID);
+			out.writeUTF(firstName);
+			out.writeUTF(lastName);
+			clients++;
+		}
+
+		public void account(int accountID, int clientID, int amount) throws IOException {
+			out.writeByte(ACCOUNT_SAVED);
+			out.writeInt(accountID);
+			out.writeInt(clientID);
+			out.writeInt(amount);
+			accounts++;
+		}
+	}
+
+	private final Path directory;
+	private final Target target;
+	private final int mapSize;
+	private final int syncBatch;
+	private final long syncIntervalMs;
+	private final boolean waitForSync;
+	private final long compactAfterBytes;
+
+	//Writers hold the read lock until their record is appended, compaction takes the write lock
+	private final ReentrantReadWriteLock compactionLock = new ReentrantReadWriteLock();
+	private final CRC32 crc = new CRC32();
+
+	private long generation;
+	private FileChannel channel;
+	private MappedByteBuffer mapped;
+	private long mappedStart;
+	private long appendedSeq;
+	private long syncedSeq;
+	private boolean closed;
+
+	private ScheduledExecutorService background;
+
+	public MutationJournal(Path directory, Target target, int mapSize, int syncBatch, long syncIntervalMs,
+			boolean waitForSync, long compactAfterBytes) {
+		this.directory = directory;
+		this.target = target;
+		this.mapSize = mapSize;
+		this.syncBatch = syncBatch;
+		this.syncIntervalMs = syncIntervalMs;
+		this.waitForSync = waitForSync;
+		this.compactAfterBytes = compactAfterBytes;
+	}
+
+	//Loads the snapshot and replays the journal after it, false when there was nothing on disk
+	public synchronized boolean open() throws IOException {
+		Files.createDirectories(directory);
+		boolean found = false;
+		generation = 0;
+		Path snapshot = directory.resolve("snapshot.dat");
+		if(Files.exists(snapshot)) {
+			generation = readSnapshot(snapshot);
+			found = true;
+		}
+		Path journal = journalPath(generation);
+		long end = 0;
+		if(Files.exists(journal)) {
+			end = replay(journal);
+			found = true;
+		}
+		deleteOlderGenerations();
+		channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		zeroFrom(end);
+		map(end);
+
+		background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "journal-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		background.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+		if(compactAfterBytes > 0) {
+			background.scheduleWithFixedDelay(this::compactIfLarge, 1, 1, TimeUnit.SECONDS);
+		}
+		logger.info("Opened journal generation " + generation + " in " + directory + " at offset " + end);
+		return found;
+	}
+
+	//Anything after the last good record is zeroed, so an old frame past a torn one can't be replayed after new writes
+	private void zeroFrom(long end) throws IOException {
+		long size = channel.size();
+		if(end >= size) {
+			return;
+		}
+		ByteBuffer zeros = ByteBuffer.allocate(1 << 16);
+		for(long position = end; position < size; position += zeros.capacity()) {
+			zeros.clear();
+			zeros.limit((int) Math.min(zeros.capacity(), size - position));
+			while(zeros.hasRemaining()) {
+				channel.write(zeros, position + zeros.position());
+			}
+		}
+		channel.force(false);
+	}
+
+	//a rename is only durable once the directory holding it is synced
+	private void syncDirectory() {
+		try(FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			//some platforms can't open a directory, the rename is as durable there as it's going to get
+			logger.warn("The journal directory could not be synced. Exception message is: " + e.getMessage());
+		}
+	}
+
+	private Path journalPath(long gen) {
+		return directory.resolve("journal-" + gen + ".log");
+	}
+
+	private void map(long start) throws IOException {
+		mappedStart = start;
+		mapped = channel.map(FileChannel.MapMode.READ_WRITE, start, mapSize);
+	}
+
+	private long readSnapshot(Path snapshot) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+			if(in.readInt() != SNAPSHOT_MAGIC) {
+				throw new IOException("The snapshot " + snapshot + " isn't a journal snapshot");
+			}
+			long nextGeneration = in.readLong();
+			int clients = in.readInt();
+			int accounts = in.readInt();
+			for(int i = 0; i < clients + accounts; i++) {
+				byte type = in.readByte();
+				if(type == CLIENT_SAVED) {
+					target.clientSaved(in.readInt(), in.readUTF(), in.readUTF());
+				} else {
+					target.accountSaved(in.readInt(), in.readInt(), in.readInt());
+				}
+			}
+			logger.info("Loaded a snapshot of " + clients + " clients and " + accounts + " accounts");
+			return nextGeneration;
+		}
+	}
+
+	//gives back where the last complete record ends, which is where appending picks back up
+	private long replay(Path journal) throws IOException {
+		long records = 0;
+		long position = 0;
+		try(FileChannel readChannel = FileChannel.open(journal, StandardOpenOption.READ)) {
+			long size = readChannel.size();
+			InputStream in = new BufferedInputStream(Channels.newInputStream(readChannel), 1 << 16);
+			DataInputStream data = new DataInputStream(in);
+			byte[] payload = new byte[256];
+			CRC32 check = new CRC32();
+			while(position + FRAME_HEADER <= size) {
+				int length = data.readInt();
+				int expectedCrc = data.readInt();
+				if(length <= 0 || position + FRAME_HEADER + length > size) {
+					break;
+				}
+				if(payload.length < length) {
+					payload = new byte[length];
+				}
+				data.readFully(payload, 0, length);
+				check.reset();
+				check.update(payload, 0, length);
+				if((int) check.getValue() != expectedCrc) {
+					logger.warn("Stopped replaying the journal at a torn record at offset " + position);
+					break;
+				}
+				apply(ByteBuffer.wrap(payload, 0, length));
+				position += FRAME_HEADER + length;
+				records++;
+			}
+		}
+		logger.info("Replayed " + records + " journal records");
+		return position;
+	}
+
+	private void apply(ByteBuffer record) {
+		byte type = record.get();
+		if(type == CLIENT_SAVED) {
+			target.clientSaved(record.getInt(), readString(record), readString(record));
+		} else if(type == ACCOUNT_SAVED) {
+			target.accountSaved(record.getInt(), record.getInt(), record.getInt());
+		} else if(type == ACCOUNT_DELETED) {
+			target.accountDeleted(record.getInt(), -1);
+		} else if(type == CLIENT_ACCOUNT_DELETED) {
+			target.accountDeleted(record.getInt(), record.getInt());
+		} else if(type == TRANSFER_SAVED) {
+			target.accountSaved(record.getInt(), record.getInt(), record.getInt());
+			target.accountSaved(record.getInt(), record.getInt(), record.getInt());
+		}
+	}
+
+	private static String readString(ByteBuffer record) {
+		byte[] bytes = new byte[record.getShort() & 0xffff];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void deleteOlderGenerations() throws IOException {
+		try(DirectoryStream<Path> journals = Files.newDirectoryStream(directory, "journal-*.log")) {
+			for(Path journal : journals) {
+				if(!journal.equals(journalPath(generation))) {
+					Files.delete(journal);
+				}
+			}
+		}
+	}
+
+	//Call before changing the store and endMutation after appending, so a snapshot never lands in between
+	public void beginMutation() {
+		compactionLock.readLock().lock();
+	}
+
+	public void endMutation() {
+		compactionLock.readLock().unlock();
+	}
+
+	public long clientSaved(int clientID, String firstName, String lastName) throws IOException {
+		byte[] first = firstName.getBytes(StandardCharsets.UTF_8);
+		byte[] last = lastName.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(1 + 4 + 2 + first.length + 2 + last.length);
+		record.put(CLIENT_SAVED).putInt(clientID);
+		record.putShort((short) first.length).put(first);
+		record.putShort((short) last.length).put(last);
+		return append(record.array());
+	}
+
+	public long accountSaved(int accountID, int clientID, int amount) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(13);
+		record.put(ACCOUNT_SAVED).putInt(accountID).putInt(clientID).putInt(amount);
+		return append(record.array());
+	}
+
+	//Both sides of a transfer go in one record, so a crash can't leave the journal with only the money taken out
+	public long transferSaved(int fromAccountID, int fromClientID, int fromAmount, int toAccountID, int toClientID, int toAmount) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(25);
+		record.put(TRANSFER_SAVED).putInt(fromAccountID).putInt(fromClientID).putInt(fromAmount);
+		record.putInt(toAccountID).putInt(toClientID).putInt(toAmount);
+		return append(record.array());
+	}
+
+	public long accountDeleted(int accountID, int clientID) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(9);
+		record.put(CLIENT_ACCOUNT_DELETED).putInt(accountID).putInt(clientID);
+		return append(record.array());
+	}
+
+	private synchronized long append(byte[] payload) throws IOException {
+		if(closed) {
+			throw new IOException("The journal is closed");
+		}
+		int frame = FRAME_HEADER + payload.length;
+		if(mapped.remaining() < frame) {
+			//the full region is forced before moving on so the sync thread only ever has the current one to worry about
+			mapped.force();
+			syncedSeq = appendedSeq;
+			map(mappedStart + mapped.position());
+		}
+		crc.reset();
+		crc.update(payload, 0, payload.length);
+		mapped.putInt(payload.length);
+		mapped.putInt((int) crc.getValue());
+		mapped.put(payload);
+		appendedSeq++;
+		if(appendedSeq - syncedSeq >= syncBatch) {
+			background.execute(this::syncQuietly);
+		}
+		return appendedSeq;
+	}
+
+	//Blocks until the record with this sequence number is on disk, unless the journal is set to not wait
+	public void awaitSync(long seq) throws IOException {
+		if(!waitForSync) {
+			return;
+		}
+		synchronized (this) {
+			while(syncedSeq < seq) {
+				if(closed) {
+					throw new IOException("The journal closed before the change was synced");
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted waiting for the journal to sync", e);
+				}
+			}
+		}
+	}
+
+	public void sync() {
+		MappedByteBuffer toForce;
+		long upTo;
+		synchronized (this) {
+			if(closed || syncedSeq == appendedSeq) {
+				return;
+			}
+			toForce = mapped;
+			upTo = appendedSeq;
+		}
+		//forced outside the lock so writers can keep appending while the disk catches up
+		toForce.force();
+		synchronized (this) {
+			if(upTo > syncedSeq) {
+				syncedSeq = upTo;
+			}
+			notifyAll();
+		}
+	}
+
+	private void syncQuietly() {
+		try {
+			sync();
+		} catch (RuntimeException e) {
+			logger.error("The journal could not be synced to disk. Exception message is: " + e.getMessage());
+		}
+	}
+
+	public synchronized long size() {
+		return mappedStart + mapped.position();
+	}
+
+	private void compactIfLarge() {
+		if(size() < compactAfterBytes) {
+			return;
+		}
+		try {
+			compact();
+		} catch (IOException e) {
+			logger.error("The journal could not be compacted. Exception message is: " + e.getMessage());
+		}
+	}
+
+	//Writes everything in the target to a new snapshot and starts an empty journal generation after it
+	public void compact() throws IOException {
+		compactionLock.writeLock().lock();
+		try {
+			long nextGeneration;
+			synchronized (this) {
+				if(closed) {
+					throw new IOException("The journal is closed");
+				}
+				mapped.force();
+				syncedSeq = appendedSeq;
+				notifyAll();
+				nextGeneration = generation + 1;
+			}
+			Path tmp = directory.resolve("snapshot.tmp");
+			try(FileChannel snapshotChannel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				//the counts go in the header, so the records are written to a buffer first
+				ByteArrayOutputStream records = new ByteArrayOutputStream(1 << 16);
+				SnapshotWriter writer = new SnapshotWriter(new DataOutputStream(records));
+				target.writeSnapshot(writer);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), 1 << 16));
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeLong(nextGeneration);
+				out.writeInt(writer.clients);
+				out.writeInt(writer.accounts);
+				records.writeTo(out);
+				out.flush();
+				snapshotChannel.force(true);
+			}
+			Files.move(tmp, directory.resolve("snapshot.dat"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			syncDirectory();
+
+			synchronized (this) {
+				Path oldJournal = journalPath(generation);
+				channel.close();
+				generation = nextGeneration;
+				channel = FileChannel.open(journalPath(generation), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				map(0);
+				Files.deleteIfExists(oldJournal);
+			}
+			logger.info("Compacted the journal into a snapshot, now on generation " + nextGeneration);
+		} finally {
+			compactionLock.writeLock().unlock();
+		}
+	}
+
+	//appends are stopped before the sync thread, so nothing can be left waiting on a sync that won't come
+	public void close() {
+		synchronized (this) {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			mapped.force();
+			syncedSeq = appendedSeq;
+			notifyAll();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.error("The journal file could not be closed. Exception message is: " + e.getMessage());
+			}
+		}
+		if(background != null) {
+			background.shutdown();
+		}
+		logger.info("Closed the journal");
+	}
+
+}
@@ -0,0 +1,423 @@
+package com.revature.dao.journal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dao.AccountStore;
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+import com.revature.util.IntIntHashMap;
+
+//Write-behind for account amount PUTs, answered once journaled and written to the backing store in batches
+public class WriteBehindAccountStore implements AccountStore {
+
+	private static Logger logger = LoggerFactory.getLogger(WriteBehindAccountStore.class);
+
+	private final AccountStore backing;
+	private final int queueSize;
+	private final int batchSize;
+	private final long maxLatencyMs;
+	private final long offerTimeoutMs;
+	private final long compactAfterBytes;
+	private final int maxOwners;
+
+	//accountID -> the latest amount queued for it, oldest first. Guarded by itself
+	private final LinkedHashMap<Integer, Account> pending = new LinkedHashMap<Integer, Account>();
+	//accountID -> amount in the batch being written, so reads still see it until the write commits. Guarded by pending
+	private final Map<Integer, Account> inFlight = new HashMap<Integer, Account>();
+	private long oldestQueuedAt;
+	//accountID -> clientID of accounts already checked, cleared at maxOwners. Guarded by pending
+	private final IntIntHashMap owners = new IntIntHashMap(1024, -1);
+	//Held while a batch is taken and written so two batches can't reorder an account, always taken before pending
+	private final Object flushLock = new Object();
+
+	private MutationJournal journal;
+	private Thread flusher;
+	private volatile boolean closed;
+
+	public WriteBehindAccountStore(AccountStore backing, int queueSize, int batchSize, long maxLatencyMs, long offerTimeoutMs,
+			long compactAfterBytes, int maxOwners) {
+		this.backing = backing;
+		this.queueSize = queueSize;
+		this.batchSize = batchSize;
+		this.maxLatencyMs = maxLatencyMs;
+		this.offerTimeoutMs = offerTimeoutMs;
+		this.compactAfterBytes = compactAfterBytes;
+		this.maxOwners = maxOwners;
+	}
+
+	//The journal must use journalTarget with its own compaction off, whatever was still queued is written first
+	public void open(MutationJournal journal) throws IOException {
+		this.journal = journal;
+		journal.open();
+		synchronized (pending) {
+			if(!pending.isEmpty()) {
+				logger.info("Recovered " + pending.size() + " queued account updates from the write-behind journal");
+				oldestQueuedAt = System.nanoTime();
+			}
+		}
+		flusher = new Thread(this::runFlusher, "write-behind-flush");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	public MutationJournal.Target journalTarget() {
+		return new MutationJournal.Target() {
+			@Override
+			public void clientSaved(int clientID, String firstName, String lastName) {
+			}
+
+			@Override
+			public void accountSaved(int accountID, int clientID, int amount) {
+				pending.put(accountID, new Account(accountID, clientID, amount));
+			}
+
+			//written to the backing store, so it's no longer queued
+			@Override
+			public void accountDeleted(int accountID, int clientID) {
+				pending.remove(accountID);
+			}
+
+			@Override
+			public void writeSnapshot(MutationJournal.SnapshotWriter writer) throws IOException {
+				synchronized (pending) {
+					for(Account account : inFlight.values()) {
+						if(!pending.containsKey(account.getAccountID())) {
+							writer.account(account.getAccountID(), account.getClientID(), account.getAmount());
+						}
+					}
+					for(Account account : pending.values()) {
+						writer.account(account.getAccountID(), account.getClientID(), account.getAmount());
+					}
+				}
+			}
+		};
+	}
+
+	@Override
+	public Account updateAccountVia2IDs(int clientID, int accountID, int newAmount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		if(!isOwner(clientID, accountID)) {
+			//fails the same way it always has, and if the account turned up in the meantime it's simply updated now
+			return backing.updateAccountVia2IDs(clientID, accountID, newAmount);
+		}
+		Account account = new Account(accountID, clientID, newAmount);
+		long seq;
+		long deadline = System.nanoTime() + offerTimeoutMs * 1000000L;
+		while(true) {
+			//waits without holding the journal, so a compaction isn't stuck behind a full queue
+			synchronized (pending) {
+				waitForRoom(accountID, deadline);
+			}
+			journal.beginMutation();
+			try {
+				synchronized (pending) {
+					if(!hasRoom(accountID)) {
+						continue;
+					}
+					//appended and queued under the same lock, so the journal and the queue agree on which update came last
+					seq = journal.accountSaved(accountID, clientID, newAmount);
+					if(pending.isEmpty()) {
+						oldestQueuedAt = System.nanoTime();
+					}
+					pending.put(accountID, account);
+					if(pending.size() >= batchSize) {
+						pending.notifyAll();
+					}
+					break;
+				}
+			} catch (IOException e) {
+				throw JournaledClientStore.journalException(e);
+			} finally {
+				journal.endMutation();
+			}
+		}
+		try {
+			journal.awaitSync(seq);
+		} catch (IOException e) {
+			throw JournaledClientStore.journalException(e);
+		}
+		return account;
+	}
+
+	//Called holding pending. An account that's already queued never waits, its update just replaces the old one
+	private boolean hasRoom(int accountID) {
+		return pending.size() < queueSize || pending.containsKey(accountID);
+	}
+
+	private void waitForRoom(int accountID, long deadline) throws couldNotConnectToDatabaseException {
+		while(!hasRoom(accountID)) {
+			long remaining = deadline - System.nanoTime();
+			if(remaining <= 0 || closed) {
+				throw new couldNotConnectToDatabaseException("The write-behind queue is full, " + pending.size() + " account updates are waiting on the database");
+			}
+			try {
+				pending.wait(remaining / 1000000L + 1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new couldNotConnectToDatabaseException("Interrupted while waiting for room in the write-behind queue");
+			}
+		}
+	}
+
+	private boolean isOwner(int clientID, int accountID) throws couldNotConnectToDatabaseException {
+		synchronized (pending) {
+			int owner = owners.get(accountID);
+			if(owner != -1) {
+				return owner == clientID;
+			}
+		}
+		Account account;
+		try {
+			account = backing.getAccountVia2IDs(clientID, accountID);
+		} catch (AccountNotFoundException | AccountClientMismatchException e) {
+			return false;
+		}
+		if(account == null || account.getAccountID() == -1) {
+			return false;
+		}
+		synchronized (pending) {
+			if(owners.size() >= maxOwners) {
+				owners.clear();
+			}
+			owners.put(accountID, clientID);
+		}
+		return true;
+	}
+
+	private void runFlusher() {
+		while(!closed) {
+			try {
+				synchronized (pending) {
+					while(!closed && !batchReady()) {
+						long waitMs = pending.isEmpty() ? maxLatencyMs : maxLatencyMs - (System.nanoTime() - oldestQueuedAt) / 1000000L;
+						pending.wait(Math.max(waitMs, 1));
+					}
+				}
+				if(!closed) {
+					flush();
+				}
+			} catch (InterruptedException e) {
+				return;
+			} catch (couldNotConnectToDatabaseException e) {
+				logger.warn("The write-behind flush failed, it'll try again. Exception message is: " + e.getMessage());
+				try {
+					Thread.sleep(maxLatencyMs);
+				} catch (InterruptedException interrupted) {
+					return;
+				}
+			}
+		}
+	}
+
+	private boolean batchReady() {
+		return pending.size() >= batchSize || (!pending.isEmpty() && System.nanoTime() - oldestQueuedAt >= maxLatencyMs * 1000000L);
+	}
+
+	//Writes out the queue a batch at a time, a failed batch is requeued unless a newer update is waiting
+	public int flush() throws couldNotConnectToDatabaseException {
+		synchronized (flushLock) {
+			int written = 0;
+			while(true) {
+				List<Account> batch;
+				synchronized (pending) {
+					if(pending.isEmpty()) {
+						break;
+					}
+					batch = new ArrayList<Account>(Math.min(pending.size(), batchSize));
+					Iterator<Map.Entry<Integer, Account>> entries = pending.entrySet().iterator();
+					while(entries.hasNext() && batch.size() < batchSize) {
+						Account account = entries.next().getValue();
+						batch.add(account);
+						inFlight.put(account.getAccountID(), account);
+						entries.remove();
+					}
+					oldestQueuedAt = System.nanoTime();
+					pending.notifyAll();
+				}
+				try {
+					backing.updateAmounts(batch);
+				} catch (couldNotConnectToDatabaseException e) {
+					synchronized (pending) {
+						for(Account account : batch) {
+							pending.putIfAbsent(account.getAccountID(), account);
+						}
+						inFlight.clear();
+					}
+					throw e;
+				}
+				markWritten(batch);
+				written += batch.size();
+			}
+			if(written > 0 && journal.size() >= compactAfterBytes) {
+				try {
+					journal.compact();
+				} catch (IOException e) {
+					//the written records are marked, so the journal just stays long until the next try
+					logger.error("The write-behind journal could not be compacted. Exception message is: " + e.getMessage());
+				}
+			}
+			return written;
+		}
+	}
+
+	//Accounts that were queued again while the batch was written keep their newer record live
+	private void markWritten(List<Account> batch) {
+		journal.beginMutation();
+		try {
+			synchronized (pending) {
+				try {
+					for(Account account : batch) {
+						if(!pending.containsKey(account.getAccountID())) {
+							journal.accountDeleted(account.getAccountID(), account.getClientID());
+						}
+					}
+				} catch (IOException e) {
+					//the rows are written either way, a restart just writes them again
+					logger.error("The write-behind journal could not mark a batch written. Exception message is: " + e.getMessage());
+				}
+				inFlight.clear();
+			}
+		} finally {
+			journal.endMutation();
+		}
+	}
+
+	//Anything that goes straight to the backing store has to see the queued amounts first
+	private void flushIfQueued(int... accountIDs) throws couldNotConnectToDatabaseException {
+		synchronized (flushLock) {
+			boolean queued = false;
+			synchronized (pending) {
+				for(int accountID : accountIDs) {
+					queued |= pending.containsKey(accountID);
+				}
+			}
+			if(queued) {
+				flush();
+			}
+		}
+	}
+
+	private void flushIfClientQueued(int clientID) throws couldNotConnectToDatabaseException {
+		synchronized (flushLock) {
+			boolean queued = false;
+			synchronized (pending) {
+				for(Account account : pending.values()) {
+					queued |= account.getClientID() == clientID;
+				}
+			}
+			if(queued) {
+				flush();
+			}
+		}
+	}
+
+	@Override
+	public Account getAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException {
+		synchronized (pending) {
+			Account account = pending.get(accountID);
+			if(account == null) {
+				account = inFlight.get(accountID);
+			}
+			if(account != null && account.getClientID() == clientID) {
+				return account;
+			}
+		}
+		return backing.getAccountVia2IDs(clientID, accountID);
+	}
+
+	@Override
+	public List<Account> getAccountsViaClientID(int clientID) throws couldNotConnectToDatabaseException, AccountNotFoundException {
+		flushIfClientQueued(clientID);
+		return backing.getAccountsViaClientID(clientID);
+	}
+
+	@Override
+	public List<Account> getAccountsPage(int clientID, int afterAccountID, int limit) throws couldNotConnectToDatabaseException {
+		flushIfClientQueued(clientID);
+		return backing.getAccountsPage(clientID, afterAccountID, limit);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenTwoValues(int clientID, int betweenLow, int betweenHigh) throws couldNotConnectToDatabaseException, AccountNotFoundException, ClientNotFoundException {
+		flushIfClientQueued(clientID);
+		return backing.getAccountsBetweenTwoValues(clientID, betweenLow, betweenHigh);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenPage(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		flushIfClientQueued(clientID);
+		return backing.getAccountsBetweenPage(clientID, betweenLow, betweenHigh, afterAccountID, limit);
+	}
+
+	@Override
+	public Account makeAccountForClient(int amount, int clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		return backing.makeAccountForClient(amount, clientID);
+	}
+
+	@Override
+	public List<Account> makeAccounts(List<Account> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		return backing.makeAccounts(accounts);
+	}
+
+	@Override
+	public Account adjustAmountVia2IDs(int clientID, int accountID, int delta) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		flushIfQueued(accountID);
+		return backing.adjustAmountVia2IDs(clientID, accountID, delta);
+	}
+
+	@Override
+	public List<Account> transferBetweenAccounts(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		flushIfQueued(fromAccountID, toAccountID);
+		return backing.transferBetweenAccounts(fromClientID, fromAccountID, toClientID, toAccountID, amount);
+	}
+
+	@Override
+	public Account deleteAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		flushIfQueued(accountID);
+		Account account = backing.deleteAccountVia2IDs(clientID, accountID);
+		synchronized (pending) {
+			owners.remove(accountID);
+		}
+		return account;
+	}
+
+	public int queued() {
+		synchronized (pending) {
+			return pending.size();
+		}
+	}
+
+	//Writes out what's left and closes the journal. Anything that can't be written stays in the journal for next time
+	public void close() {
+		closed = true;
+		if(flusher != null) {
+			flusher.interrupt();
+			try {
+				flusher.join(10000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			flush();
+		} catch (couldNotConnectToDatabaseException e) {
+			logger.error("Queued account updates could not be written, they'll be replayed on the next start. Exception message is: " + e.getMessage());
+		}
+		if(journal != null) {
+			journal.close();
+		}
+	}
+
+}
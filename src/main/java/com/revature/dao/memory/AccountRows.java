@@ -0,0 +1,26 @@
+package com.revature.dao.memory;
+
+//Where AccountTable actually keeps its rows. Every row is the same five int columns, addressed by slot number
+public interface AccountRows {
+
+	int ACCOUNT_ID = 0;
+	int CLIENT_ID = 1;
+	int AMOUNT = 2;
+	int NEXT_IN_CLIENT = 3;
+	int PREV_IN_CLIENT = 4;
+	int COLUMNS = 5;
+
+	int get(int slot, int column);
+
+	void set(int slot, int column, int value);
+
+	int capacity();
+
+	//makes room for at least this many slots, keeping what's already stored
+	void ensureCapacity(int slots);
+
+	long heapBytes();
+
+	long offHeapBytes();
+
+}
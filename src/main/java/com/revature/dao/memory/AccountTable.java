@@ -0,0 +1,216 @@
+package com.revature.dao.memory;
+
+import static com.revature.dao.memory.AccountRows.ACCOUNT_ID;
+import static com.revature.dao.memory.AccountRows.AMOUNT;
+import static com.revature.dao.memory.AccountRows.CLIENT_ID;
+import static com.revature.dao.memory.AccountRows.NEXT_IN_CLIENT;
+import static com.revature.dao.memory.AccountRows.PREV_IN_CLIENT;
+
+import com.revature.util.IntIntHashMap;
+
+//Account rows as fixed width int records, each client's slots chained in account ID order. Not thread safe
+public class AccountTable {
+
+	public static final int NO_SLOT = -1;
+
+	private final AccountRows rows;
+	private final IntIntHashMap slotByAccountID;
+	private final IntIntHashMap headSlotByClientID;
+
+	//slots below highWater have been used at some point, freed ones are chained through the next column
+	private int highWater;
+	private int freeHead = NO_SLOT;
+	private int size;
+
+	//Walks rows without making Account objects
+	public interface RowVisitor {
+		void visit(int accountID, int clientID, int amount);
+	}
+
+	public AccountTable(int initialCapacity) {
+		this(new HeapAccountRows(Math.max(initialCapacity, 16)));
+	}
+
+	public AccountTable(AccountRows rows) {
+		this.rows = rows;
+		slotByAccountID = new IntIntHashMap(rows.capacity(), NO_SLOT);
+		headSlotByClientID = new IntIntHashMap(16, NO_SLOT);
+	}
+
+	public int insert(int accountID, int clientID, int amount) {
+		if(slotByAccountID.containsKey(accountID)) {
+			throw new IllegalArgumentException("Account " + accountID + " is already in the table");
+		}
+		int slot = allocateSlot();
+		rows.set(slot, ACCOUNT_ID, accountID);
+		rows.set(slot, CLIENT_ID, clientID);
+		rows.set(slot, AMOUNT, amount);
+		slotByAccountID.put(accountID, slot);
+
+		int head = headSlotByClientID.get(clientID);
+		if(head == NO_SLOT) {
+			rows.set(slot, NEXT_IN_CLIENT, slot);
+			rows.set(slot, PREV_IN_CLIENT, slot);
+			headSlotByClientID.put(clientID, slot);
+		} else {
+			//new IDs come in order so this is nearly always the tail, only out of order IDs walk back
+			int before = rows.get(head, PREV_IN_CLIENT);
+			while(before != head && rows.get(before, ACCOUNT_ID) > accountID) {
+				before = rows.get(before, PREV_IN_CLIENT);
+			}
+			if(rows.get(before, ACCOUNT_ID) > accountID) {
+				//lower than every account the client has, so it goes in front of the head and becomes the head
+				linkAfter(rows.get(head, PREV_IN_CLIENT), slot);
+				headSlotByClientID.put(clientID, slot);
+			} else {
+				linkAfter(before, slot);
+			}
+		}
+		size++;
+		return slot;
+	}
+
+	private void linkAfter(int before, int slot) {
+		int after = rows.get(before, NEXT_IN_CLIENT);
+		rows.set(before, NEXT_IN_CLIENT, slot);
+		rows.set(slot, PREV_IN_CLIENT, before);
+		rows.set(slot, NEXT_IN_CLIENT, after);
+		rows.set(after, PREV_IN_CLIENT, slot);
+	}
+
+	private int allocateSlot() {
+		if(freeHead != NO_SLOT) {
+			int slot = freeHead;
+			freeHead = rows.get(slot, NEXT_IN_CLIENT);
+			return slot;
+		}
+		rows.ensureCapacity(highWater + 1);
+		return highWater++;
+	}
+
+	public void remove(int slot) {
+		int clientID = rows.get(slot, CLIENT_ID);
+		slotByAccountID.remove(rows.get(slot, ACCOUNT_ID));
+		int next = rows.get(slot, NEXT_IN_CLIENT);
+		if(next == slot) {
+			headSlotByClientID.remove(clientID);
+		} else {
+			int prev = rows.get(slot, PREV_IN_CLIENT);
+			rows.set(prev, NEXT_IN_CLIENT, next);
+			rows.set(next, PREV_IN_CLIENT, prev);
+			if(headSlotByClientID.get(clientID) == slot) {
+				headSlotByClientID.put(clientID, next);
+			}
+		}
+		rows.set(slot, NEXT_IN_CLIENT, freeHead);
+		freeHead = slot;
+		size--;
+	}
+
+	public int slotOf(int accountID) {
+		return slotByAccountID.get(accountID);
+	}
+
+	public int accountID(int slot) {
+		return rows.get(slot, ACCOUNT_ID);
+	}
+
+	public int clientID(int slot) {
+		return rows.get(slot, CLIENT_ID);
+	}
+
+	public int amount(int slot) {
+		return rows.get(slot, AMOUNT);
+	}
+
+	public void setAmount(int slot, int amount) {
+		rows.set(slot, AMOUNT, amount);
+	}
+
+	public boolean hasClient(int clientID) {
+		return headSlotByClientID.containsKey(clientID);
+	}
+
+	//For walking a client by hand: start at firstSlotOfClient and follow nextSlotOfClient until it gives NO_SLOT
+	public int firstSlotOfClient(int clientID) {
+		return headSlotByClientID.get(clientID);
+	}
+
+	public int nextSlotOfClient(int slot) {
+		int next = rows.get(slot, NEXT_IN_CLIENT);
+		return next == headSlotByClientID.get(rows.get(slot, CLIENT_ID)) ? NO_SLOT : next;
+	}
+
+	//The client's first slot above afterAccountID or NO_SLOT, jumps straight there when that account still exists
+	public int firstSlotOfClientAfter(int clientID, int afterAccountID) {
+		int head = headSlotByClientID.get(clientID);
+		if(head == NO_SLOT || rows.get(head, ACCOUNT_ID) > afterAccountID) {
+			return head;
+		}
+		int slot = slotByAccountID.get(afterAccountID);
+		if(slot == NO_SLOT || rows.get(slot, CLIENT_ID) != clientID) {
+			slot = head;
+			while(slot != NO_SLOT && rows.get(slot, ACCOUNT_ID) <= afterAccountID) {
+				slot = nextSlotOfClient(slot);
+			}
+			return slot;
+		}
+		return nextSlotOfClient(slot);
+	}
+
+	public void forEachOfClient(int clientID, RowVisitor visitor) {
+		int head = headSlotByClientID.get(clientID);
+		if(head == NO_SLOT) {
+			return;
+		}
+		int slot = head;
+		do {
+			visitor.visit(rows.get(slot, ACCOUNT_ID), clientID, rows.get(slot, AMOUNT));
+			slot = rows.get(slot, NEXT_IN_CLIENT);
+		} while(slot != head);
+	}
+
+	//Every row in the table, in slot order
+	public void forEach(RowVisitor visitor) {
+		for(int slot = 0; slot < highWater; slot++) {
+			int accountID = rows.get(slot, ACCOUNT_ID);
+			//freed slots are skipped, they're the ones the accountID map no longer points at
+			if(slotByAccountID.get(accountID) == slot) {
+				visitor.visit(accountID, rows.get(slot, CLIENT_ID), rows.get(slot, AMOUNT));
+			}
+		}
+	}
+
+	public int countOfClient(int clientID) {
+		int head = headSlotByClientID.get(clientID);
+		if(head == NO_SLOT) {
+			return 0;
+		}
+		int count = 0;
+		int slot = head;
+		do {
+			count++;
+			slot = rows.get(slot, NEXT_IN_CLIENT);
+		} while(slot != head);
+		return count;
+	}
+
+	//The worse of the two ID maps, for checking the stripes a table sits in don't cluster its keys
+	public double averageProbeLength() {
+		return Math.max(slotByAccountID.averageProbeLength(), headSlotByClientID.averageProbeLength());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	//roughly what the table takes up on the heap, the rows (when they're on the heap) plus the two maps
+	public long memoryBytes() {
+		return rows.heapBytes() + slotByAccountID.memoryBytes() + headSlotByClientID.memoryBytes();
+	}
+
+	public long offHeapBytes() {
+		return rows.offHeapBytes();
+	}
+
+}
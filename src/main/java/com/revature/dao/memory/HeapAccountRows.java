@@ -0,0 +1,53 @@
+package com.revature.dao.memory;
+
+import java.util.Arrays;
+
+//Rows as one int array per column
+public class HeapAccountRows implements AccountRows {
+
+	private final int[][] columns = new int[COLUMNS][];
+
+	public HeapAccountRows(int initialCapacity) {
+		for(int i = 0; i < COLUMNS; i++) {
+			columns[i] = new int[initialCapacity];
+		}
+	}
+
+	@Override
+	public int get(int slot, int column) {
+		return columns[column][slot];
+	}
+
+	@Override
+	public void set(int slot, int column, int value) {
+		columns[column][slot] = value;
+	}
+
+	@Override
+	public int capacity() {
+		return columns[0].length;
+	}
+
+	@Override
+	public void ensureCapacity(int slots) {
+		int capacity = capacity();
+		if(slots <= capacity) {
+			return;
+		}
+		capacity = Math.max(slots, capacity + (capacity >> 1));
+		for(int i = 0; i < COLUMNS; i++) {
+			columns[i] = Arrays.copyOf(columns[i], capacity);
+		}
+	}
+
+	@Override
+	public long heapBytes() {
+		return capacity() * 4L * COLUMNS;
+	}
+
+	@Override
+	public long offHeapBytes() {
+		return 0;
+	}
+
+}
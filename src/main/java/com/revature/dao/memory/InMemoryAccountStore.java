@@ -0,0 +1,466 @@
+package com.revature.dao.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dao.AccountStore;
+import com.revature.dao.ClientStore;
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ClientAlreadyExistsException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+
+//Accounts in memory striped by client, failing the same way AccountRepository does
+public class InMemoryAccountStore implements AccountStore {
+
+	private Logger logger = LoggerFactory.getLogger(InMemoryAccountStore.class);
+
+	private final ClientStore clientStore;
+	private final int stripeShift;
+	private final ReentrantReadWriteLock[] locks;
+	private final AccountTable[] stripes;
+	private final AtomicInteger lastAccountID = new AtomicInteger(0);
+
+	public InMemoryAccountStore(ClientStore clientStore, int stripeCount, int initialCapacity, boolean offHeap) {
+		this.clientStore = clientStore;
+		int count = Stripes.roundUp(stripeCount);
+		this.stripeShift = Stripes.shiftFor(count);
+		this.locks = new ReentrantReadWriteLock[count];
+		this.stripes = new AccountTable[count];
+		for(int i = 0; i < count; i++) {
+			locks[i] = new ReentrantReadWriteLock();
+			int stripeCapacity = Math.max(initialCapacity / count, 16);
+			stripes[i] = new AccountTable(offHeap ? new OffHeapAccountRows(stripeCapacity) : new HeapAccountRows(stripeCapacity));
+		}
+		logger.info("Created the " + (offHeap ? "off-heap" : "in-memory") + " account store with " + count + " stripes");
+	}
+
+	public InMemoryAccountStore(ClientStore clientStore, int stripeCount) {
+		this(clientStore, stripeCount, 1024, false);
+	}
+
+	//Same starting accounts the MariaDB repository puts in accountTbl
+	public void seed() {
+		int[][] rows = {{1, 500}, {1, 5000}, {1, 1500}, {1, 2000}, {2, 4000}, {2, 2500}, {3, 3000}};
+		for(int[] row : rows) {
+			insert(row[0], row[1]);
+		}
+	}
+
+	private int stripeOf(int clientID) {
+		return Stripes.index(clientID, stripeShift);
+	}
+
+	private Account insert(int clientID, int amount) {
+		int accountID = reserveAccountID();
+		int stripe = stripeOf(clientID);
+		locks[stripe].writeLock().lock();
+		try {
+			stripes[stripe].insert(accountID, clientID, amount);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		return new Account(accountID, clientID, amount);
+	}
+
+	@Override
+	public Account makeAccountForClient(int amount, int clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		checkClientExists(clientID, "Tried to make an account for client with ID " + clientID + "but client couldn't be found");
+		return insert(clientID, amount);
+	}
+
+	//Throws the same exception makeAccountForClient would for a client that isn't there
+	public void checkClientExists(int clientID, String message) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		try {
+			if(clientStore.getClientById(clientID) == null) {
+				throw new ClientNotFoundException(message);
+			}
+		} catch (ClientAlreadyExistsException e) {
+			throw new couldNotConnectToDatabaseException("Something happened with the client store. Exception message is: " + e.getMessage());
+		}
+	}
+
+	//Next account ID, for callers that record the account before restoreAccount. Unused IDs are skipped like AUTO_INCREMENT
+	public int reserveAccountID() {
+		return lastAccountID.incrementAndGet();
+	}
+
+	//Every client is checked before anything is made, so a missing client leaves the store untouched like the repository's batch
+	@Override
+	public List<Account> makeAccounts(List<Account> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		for(Account account : accounts) {
+			checkClientExists(account.getClientID(), "Tried to make accounts for client with ID " + account.getClientID() + " but client couldn't be found");
+		}
+		ArrayList<Account> made = new ArrayList<Account>(accounts.size());
+		for(Account account : accounts) {
+			made.add(insert(account.getClientID(), account.getAmount()));
+		}
+		return made;
+	}
+
+	@Override
+	public List<Account> getAccountsViaClientID(int clientID) throws AccountNotFoundException {
+		int stripe = stripeOf(clientID);
+		locks[stripe].readLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			ArrayList<Account> accountList = new ArrayList<Account>(table.countOfClient(clientID));
+			table.forEachOfClient(clientID, (aID, cID, amount) -> accountList.add(new Account(aID, cID, amount)));
+			if(accountList.size() != 0) {
+				return accountList;
+			}
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+		throw new AccountNotFoundException("No accounts for client id " + clientID + " were found.");
+	}
+
+	@Override
+	public List<Account> getAccountsPage(int clientID, int afterAccountID, int limit) {
+		return page(clientID, Integer.MIN_VALUE, Integer.MAX_VALUE, afterAccountID, limit);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenPage(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) throws ClientNotFoundException {
+		int stripe = stripeOf(clientID);
+		locks[stripe].readLock().lock();
+		try {
+			//same as getAccountsBetweenTwoValues for a client with no accounts
+			if(!stripes[stripe].hasClient(clientID)) {
+				throw new ClientNotFoundException();
+			}
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+		return page(clientID, betweenLow, betweenHigh, afterAccountID, limit);
+	}
+
+	//The client's chain is in account ID order, so a page starts right after the cursor and stops once it's full
+	private List<Account> page(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) {
+		ArrayList<Account> page = new ArrayList<Account>(Math.min(limit, 1024));
+		int stripe = stripeOf(clientID);
+		locks[stripe].readLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			for(int slot = table.firstSlotOfClientAfter(clientID, afterAccountID); slot != AccountTable.NO_SLOT && page.size() < limit; slot = table.nextSlotOfClient(slot)) {
+				int amount = table.amount(slot);
+				if(amount >= betweenLow && amount <= betweenHigh) {
+					page.add(new Account(table.accountID(slot), clientID, amount));
+				}
+			}
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+		return page;
+	}
+
+	@Override
+	public Account getAccountVia2IDs(int clientID, int accountID) throws AccountClientMismatchException {
+		int stripe = stripeOf(clientID);
+		locks[stripe].readLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot != AccountTable.NO_SLOT && table.clientID(slot) == clientID) {
+				return new Account(accountID, clientID, table.amount(slot));
+			}
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+		if(ownerOf(accountID) != -1) {
+			throw new AccountClientMismatchException();
+		}
+		return new Account(-1, -1, -1);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenTwoValues(int clientID, int betweenLow, int betweenHigh) throws AccountNotFoundException, ClientNotFoundException {
+		int stripe = stripeOf(clientID);
+		locks[stripe].readLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			if(!table.hasClient(clientID)) {
+				throw new ClientNotFoundException();
+			}
+			ArrayList<Account> accountsList = new ArrayList<Account>();
+			for(int slot = table.firstSlotOfClient(clientID); slot != AccountTable.NO_SLOT; slot = table.nextSlotOfClient(slot)) {
+				int amount = table.amount(slot);
+				if(amount >= betweenLow && amount <= betweenHigh) {
+					accountsList.add(new Account(table.accountID(slot), clientID, amount));
+				}
+			}
+			if(accountsList.size() != 0) {
+				return accountsList;
+			}
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+		throw new AccountNotFoundException("No accounts with amounts between " + betweenLow + " and " + betweenHigh + " were found.");
+	}
+
+	@Override
+	public Account updateAccountVia2IDs(int clientID, int accountID, int newAmount) throws AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		int stripe = stripeOf(clientID);
+		boolean clientHasAccounts;
+		locks[stripe].writeLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot != AccountTable.NO_SLOT && table.clientID(slot) == clientID) {
+				table.setAmount(slot, newAmount);
+				return new Account(accountID, clientID, newAmount);
+			}
+			clientHasAccounts = table.hasClient(clientID);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		throwMissingAccountException(clientHasAccounts, accountID, "User tried to update an account that didn't exist");
+		return null;
+	}
+
+	@Override
+	public Account adjustAmountVia2IDs(int clientID, int accountID, int delta) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		int stripe = stripeOf(clientID);
+		boolean clientHasAccounts;
+		locks[stripe].writeLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot != AccountTable.NO_SLOT && table.clientID(slot) == clientID) {
+				long newAmount = (long) table.amount(slot) + delta;
+				//only withdrawals are floored at 0, an account that was set below 0 can still be paid into
+				if(delta < 0 && newAmount < 0) {
+					throw new InsufficientFundsException("Account " + accountID + " has " + table.amount(slot) + ", which isn't enough to take out " + (-delta));
+				}
+				if(newAmount > Integer.MAX_VALUE) {
+					throw new couldNotConnectToDatabaseException("Out of range value for column 'amount' in account " + accountID);
+				}
+				table.setAmount(slot, (int) newAmount);
+				return new Account(accountID, clientID, (int) newAmount);
+			}
+			clientHasAccounts = table.hasClient(clientID);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		throwMissingAccountException(clientHasAccounts, accountID, null);
+		return null;
+	}
+
+	//Both stripes are locked lowest index first, which is the same order every transfer uses, so two of them can't deadlock
+	@Override
+	public List<Account> transferBetweenAccounts(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		int fromStripe = stripeOf(fromClientID);
+		int toStripe = stripeOf(toClientID);
+		int first = Math.min(fromStripe, toStripe);
+		int second = Math.max(fromStripe, toStripe);
+		int missingClientID;
+		int missingAccountID;
+		boolean clientHasAccounts;
+		locks[first].writeLock().lock();
+		locks[second].writeLock().lock();
+		try {
+			AccountTable fromTable = stripes[fromStripe];
+			AccountTable toTable = stripes[toStripe];
+			int fromSlot = fromTable.slotOf(fromAccountID);
+			int toSlot = toTable.slotOf(toAccountID);
+			boolean fromFound = fromSlot != AccountTable.NO_SLOT && fromTable.clientID(fromSlot) == fromClientID;
+			boolean toFound = toSlot != AccountTable.NO_SLOT && toTable.clientID(toSlot) == toClientID;
+			if(fromFound && toFound) {
+				int fromAmount = fromTable.amount(fromSlot);
+				if(fromAmount < amount) {
+					throw new InsufficientFundsException("Account " + fromAccountID + " has " + fromAmount + ", which isn't enough to take out " + amount);
+				}
+				long toAmount = (long) toTable.amount(toSlot) + amount;
+				if(toAmount > Integer.MAX_VALUE) {
+					throw new couldNotConnectToDatabaseException("Out of range value for column 'amount' in account " + toAccountID);
+				}
+				fromTable.setAmount(fromSlot, fromAmount - amount);
+				toTable.setAmount(toSlot, (int) toAmount);
+				List<Account> accounts = new ArrayList<Account>(2);
+				accounts.add(new Account(fromAccountID, fromClientID, fromAmount - amount));
+				accounts.add(new Account(toAccountID, toClientID, (int) toAmount));
+				return accounts;
+			}
+			missingClientID = fromFound ? toClientID : fromClientID;
+			missingAccountID = fromFound ? toAccountID : fromAccountID;
+			clientHasAccounts = (fromFound ? toTable : fromTable).hasClient(missingClientID);
+		} finally {
+			locks[second].writeLock().unlock();
+			locks[first].writeLock().unlock();
+		}
+		throwMissingAccountException(clientHasAccounts, missingAccountID, null);
+		return null;
+	}
+
+	@Override
+	public Account deleteAccountVia2IDs(int clientID, int accountID) throws AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		int stripe = stripeOf(clientID);
+		boolean clientHasAccounts;
+		locks[stripe].writeLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot != AccountTable.NO_SLOT && table.clientID(slot) == clientID) {
+				Account account = new Account(accountID, clientID, table.amount(slot));
+				table.remove(slot);
+				return account;
+			}
+			clientHasAccounts = table.hasClient(clientID);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		throwMissingAccountException(clientHasAccounts, accountID, null);
+		return null;
+	}
+
+	//Puts an account back as it was when replaying the journal, replacing it if it's already there
+	public void restoreAccount(int accountID, int clientID, int amount) {
+		int stripe = stripeOf(clientID);
+		locks[stripe].writeLock().lock();
+		try {
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot == AccountTable.NO_SLOT) {
+				table.insert(accountID, clientID, amount);
+			} else {
+				table.setAmount(slot, amount);
+			}
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		lastAccountID.accumulateAndGet(accountID, Math::max);
+	}
+
+	//clientID -1 means it isn't known (old journal records), which has to look through every stripe
+	public void removeAccount(int accountID, int clientID) {
+		if(clientID != -1) {
+			int stripe = stripeOf(clientID);
+			locks[stripe].writeLock().lock();
+			try {
+				int slot = stripes[stripe].slotOf(accountID);
+				if(slot != AccountTable.NO_SLOT) {
+					stripes[stripe].remove(slot);
+				}
+			} finally {
+				locks[stripe].writeLock().unlock();
+			}
+			return;
+		}
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].writeLock().lock();
+			try {
+				int slot = stripes[i].slotOf(accountID);
+				if(slot != AccountTable.NO_SLOT) {
+					stripes[i].remove(slot);
+					return;
+				}
+			} finally {
+				locks[i].writeLock().unlock();
+			}
+		}
+	}
+
+	//Visits every account one stripe at a time, so it isn't a consistent picture unless writes are stopped
+	public void forEachAccount(AccountTable.RowVisitor visitor) {
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				stripes[i].forEach(visitor);
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+	}
+
+	//the worst stripe's average probe length, so the tests can check the stripes don't cluster the tables' keys
+	double worstProbeLength() {
+		double worst = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				worst = Math.max(worst, stripes[i].averageProbeLength());
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+		return worst;
+	}
+
+	public int size() {
+		int size = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				size += stripes[i].size();
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+		return size;
+	}
+
+	public long memoryBytes() {
+		long bytes = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				bytes += stripes[i].memoryBytes();
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+		return bytes;
+	}
+
+	public long offHeapBytes() {
+		long bytes = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				bytes += stripes[i].offHeapBytes();
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+		return bytes;
+	}
+
+	//Same exception AccountRepository would pick, called with the stripe unlocked since ownerOf locks the others
+	private void throwMissingAccountException(boolean clientHasAccounts, int accountID, String notFoundMessage) throws ClientNotFoundException, AccountClientMismatchException, AccountNotFoundException {
+		if(!clientHasAccounts) {
+			throw new ClientNotFoundException();
+		}
+		if(ownerOf(accountID) != -1) {
+			throw new AccountClientMismatchException();
+		}
+		if(notFoundMessage == null) {
+			throw new AccountNotFoundException();
+		}
+		throw new AccountNotFoundException(notFoundMessage);
+	}
+
+	//Checks every stripe for the account's real owner, -1 if nobody has it
+	private int ownerOf(int accountID) {
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				int slot = stripes[i].slotOf(accountID);
+				if(slot != AccountTable.NO_SLOT) {
+					return stripes[i].clientID(slot);
+				}
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+		return -1;
+	}
+
+}
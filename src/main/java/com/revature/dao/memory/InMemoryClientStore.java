@@ -0,0 +1,213 @@
+package com.revature.dao.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dao.ClientStore;
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.ClientAddException;
+import com.revature.exceptions.ClientAlreadyExistsException;
+import com.revature.model.Client;
+import com.revature.util.IntObjectHashMap;
+
+//Clients in memory striped by ID, with the IDs also kept in order for paging
+public class InMemoryClientStore implements ClientStore {
+
+	private Logger logger = LoggerFactory.getLogger(InMemoryClientStore.class);
+
+	private final int stripeShift;
+	private final ReentrantReadWriteLock[] locks;
+	private final IntObjectHashMap<Client>[] stripes;
+	private final AtomicInteger lastClientID = new AtomicInteger(0);
+	private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<Integer>();
+
+	public InMemoryClientStore(int stripeCount) {
+		int count = Stripes.roundUp(stripeCount);
+		this.stripeShift = Stripes.shiftFor(count);
+		this.locks = new ReentrantReadWriteLock[count];
+		//Java can't make a generic array, every slot gets an IntObjectHashMap<Client> below so the cast holds
+		@SuppressWarnings("unchecked")
+		IntObjectHashMap<Client>[] stripes = (IntObjectHashMap<Client>[]) new IntObjectHashMap<?>[count];
+		this.stripes = stripes;
+		for(int i = 0; i < count; i++) {
+			locks[i] = new ReentrantReadWriteLock();
+			stripes[i] = new IntObjectHashMap<Client>();
+		}
+		logger.info("Created the in-memory client store with " + count + " stripes");
+	}
+
+	//Same starting clients the MariaDB repository puts in clientTbl
+	public void seed() {
+		addClient(new PostClientDTO("George", "Lucas"));
+		addClient(new PostClientDTO("Johnny", "Depp"));
+		addClient(new PostClientDTO("Owen", "Wilson"));
+		addClient(new PostClientDTO("Nicholas", "Cage"));
+	}
+
+	private int stripeOf(int clientID) {
+		return Stripes.index(clientID, stripeShift);
+	}
+
+	private static Client copyOf(Client client) {
+		return new Client(client.getId(), client.getFirstName(), client.getLastName());
+	}
+
+	public boolean clientExists(int clientID) {
+		int stripe = stripeOf(clientID);
+		locks[stripe].readLock().lock();
+		try {
+			return stripes[stripe].containsKey(clientID);
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+	}
+
+	@Override
+	public void closeRepository() {
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].writeLock().lock();
+			try {
+				stripes[i].clear();
+			} finally {
+				locks[i].writeLock().unlock();
+			}
+		}
+		ids.clear();
+	}
+
+	@Override
+	public Client getClientById(int id) {
+		int stripe = stripeOf(id);
+		locks[stripe].readLock().lock();
+		try {
+			Client client = stripes[stripe].get(id);
+			return client == null ? null : copyOf(client);
+		} finally {
+			locks[stripe].readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Client> getAllClients() {
+		ArrayList<Client> listOfClients = new ArrayList<Client>();
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].readLock().lock();
+			try {
+				stripes[i].forEachValue(client -> listOfClients.add(copyOf(client)));
+			} finally {
+				locks[i].readLock().unlock();
+			}
+		}
+		listOfClients.sort(Comparator.comparingInt(Client::getId));
+		return listOfClients;
+	}
+
+	//Picks up right after afterID, so a late page costs the same as the first one
+	@Override
+	public List<Client> getClientsAfter(int afterID, int limit) {
+		ArrayList<Client> page = new ArrayList<Client>(Math.min(limit, 1024));
+		for(Integer id : ids.tailSet(afterID, false)) {
+			if(page.size() == limit) {
+				break;
+			}
+			Client client = getClientById(id);
+			if(client != null) {
+				page.add(client);
+			}
+		}
+		return page;
+	}
+
+	//Hands each client over as it's found, without making a list of all of them first
+	@Override
+	public void streamAllClients(ClientConsumer consumer) throws IOException {
+		for(Integer id : ids) {
+			Client client = getClientById(id);
+			if(client != null) {
+				consumer.accept(client);
+			}
+		}
+	}
+
+	@Override
+	public Client newClient(PostClientDTO client) throws ClientAddException {
+		if(client.getFirstName() == null || client.getLastName() == null) {
+			throw new ClientAddException("Something went wrong and the client could not be added.");
+		}
+		return addClient(client);
+	}
+
+	//Next client ID, for callers that record the client before restoreClient
+	public int reserveClientID() {
+		return lastClientID.incrementAndGet();
+	}
+
+	private Client addClient(PostClientDTO client) {
+		int id = reserveClientID();
+		Client newClient = new Client(id, client.getFirstName(), client.getLastName());
+		int stripe = stripeOf(id);
+		locks[stripe].writeLock().lock();
+		try {
+			stripes[stripe].put(id, newClient);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		ids.add(id);
+		return copyOf(newClient);
+	}
+
+	@Override
+	public Client newClientByID(int clientID, String firstName, String lastName) throws ClientAlreadyExistsException {
+		int stripe = stripeOf(clientID);
+		locks[stripe].writeLock().lock();
+		try {
+			if(stripes[stripe].containsKey(clientID)) {
+				throw new ClientAlreadyExistsException("Client with ID " + clientID + " already exists");
+			}
+			stripes[stripe].put(clientID, new Client(clientID, firstName, lastName));
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		ids.add(clientID);
+		//keeps generated IDs ahead of any ID that was picked by hand, like AUTO_INCREMENT does
+		lastClientID.accumulateAndGet(clientID, Math::max);
+		return new Client(clientID, firstName, lastName);
+	}
+
+	//Puts a client back exactly as it was, used when rebuilding the store from the journal
+	public void restoreClient(int clientID, String firstName, String lastName) {
+		int stripe = stripeOf(clientID);
+		locks[stripe].writeLock().lock();
+		try {
+			stripes[stripe].put(clientID, new Client(clientID, firstName, lastName));
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+		ids.add(clientID);
+		lastClientID.accumulateAndGet(clientID, Math::max);
+	}
+
+	@Override
+	public Client updateClient(int id, String newFirstName, String newLastName) {
+		int stripe = stripeOf(id);
+		locks[stripe].writeLock().lock();
+		try {
+			if(!stripes[stripe].containsKey(id)) {
+				return null;
+			}
+			stripes[stripe].put(id, new Client(id, newFirstName, newLastName));
+			return new Client(id, newFirstName, newLastName);
+		} finally {
+			locks[stripe].writeLock().unlock();
+		}
+	}
+
+}
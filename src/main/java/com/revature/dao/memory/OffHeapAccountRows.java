@@ -0,0 +1,63 @@
+package com.revature.dao.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+//Rows as 20 byte records in direct ByteBuffers outside the heap, grown a chunk at a time without copying
+public class OffHeapAccountRows implements AccountRows {
+
+	private static final int RECORD_BYTES = COLUMNS * 4;
+	private static final int SLOTS_PER_CHUNK_SHIFT = 14;
+	private static final int SLOTS_PER_CHUNK = 1 << SLOTS_PER_CHUNK_SHIFT;
+	private static final int SLOT_MASK = SLOTS_PER_CHUNK - 1;
+
+	private ByteBuffer[] chunks = new ByteBuffer[0];
+
+	public OffHeapAccountRows(int initialCapacity) {
+		ensureCapacity(Math.max(initialCapacity, 1));
+	}
+
+	private static int offset(int slot, int column) {
+		return (slot & SLOT_MASK) * RECORD_BYTES + (column << 2);
+	}
+
+	@Override
+	public int get(int slot, int column) {
+		return chunks[slot >>> SLOTS_PER_CHUNK_SHIFT].getInt(offset(slot, column));
+	}
+
+	@Override
+	public void set(int slot, int column, int value) {
+		chunks[slot >>> SLOTS_PER_CHUNK_SHIFT].putInt(offset(slot, column), value);
+	}
+
+	@Override
+	public int capacity() {
+		return chunks.length * SLOTS_PER_CHUNK;
+	}
+
+	@Override
+	public void ensureCapacity(int slots) {
+		int needed = (slots + SLOTS_PER_CHUNK - 1) >>> SLOTS_PER_CHUNK_SHIFT;
+		if(needed <= chunks.length) {
+			return;
+		}
+		int old = chunks.length;
+		chunks = Arrays.copyOf(chunks, needed);
+		for(int i = old; i < needed; i++) {
+			chunks[i] = ByteBuffer.allocateDirect(SLOTS_PER_CHUNK * RECORD_BYTES).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	@Override
+	public long heapBytes() {
+		return chunks.length * 8L;
+	}
+
+	@Override
+	public long offHeapBytes() {
+		return (long) chunks.length * SLOTS_PER_CHUNK * RECORD_BYTES;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.revature.dao.memory;
+
+//Shared math for picking which stripe (and lock) an ID belongs to
+final class Stripes {
+
+	private Stripes() {
+	}
+
+	//stripe counts are kept at powers of two so the stripe is just the top bits of the mixed ID
+	static int roundUp(int stripeCount) {
+		int count = 1;
+		while(count < stripeCount) {
+			count <<= 1;
+		}
+		return count;
+	}
+
+	//Stripes come from the top bits of the mix since the maps use the low bits, taking both from one end clusters the keys
+	static int shiftFor(int stripeCount) {
+		return 32 - Integer.numberOfTrailingZeros(stripeCount);
+	}
+
+	static int index(int id, int shift) {
+		//with one stripe the shift is 32, which Java would treat as a shift of 0
+		return shift == 32 ? 0 : mix(id) >>> shift;
+	}
+
+	static int mix(int id) {
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
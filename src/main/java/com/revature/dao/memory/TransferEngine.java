@@ -0,0 +1,517 @@
+package com.revature.dao.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dao.AccountStore;
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+import com.revature.util.IntIntHashMap;
+
+//Keeps the amounts of accounts being changed in memory and writes them back in batches. Assumes it's the only writer of their amounts
+public class TransferEngine implements AccountStore {
+
+	private static Logger logger = LoggerFactory.getLogger(TransferEngine.class);
+
+	private static final int DIRTY = 1;
+
+	private final AccountStore backing;
+	private final int stripeShift;
+	//how many accounts a stripe can hold after a flush before its cold ones are dropped
+	private final int stripeCapacity;
+	private final ReentrantLock[] locks;
+	private final AccountTable[] stripes;
+	//accountID -> DIRTY for the accounts in each stripe that changed since the last flush
+	private final IntIntHashMap[] dirty;
+	//bumped when a stripe's account is written straight to the backing store so an older load isn't installed. Guarded by the stripe's lock
+	private final long[] backingWrites;
+	//Held for a whole flush so two flushes can't reorder an account, always taken before any stripe lock
+	private final Object flushLock = new Object();
+	private final ScheduledExecutorService flusher;
+
+	public TransferEngine(AccountStore backing, int stripeCount, long flushIntervalMs, int maxAccounts) {
+		this.backing = backing;
+		int count = Stripes.roundUp(stripeCount);
+		this.stripeShift = Stripes.shiftFor(count);
+		this.stripeCapacity = Math.max(1, (int) (((long) maxAccounts + count - 1) / count));
+		this.locks = new ReentrantLock[count];
+		this.stripes = new AccountTable[count];
+		this.dirty = new IntIntHashMap[count];
+		this.backingWrites = new long[count];
+		for(int i = 0; i < count; i++) {
+			locks[i] = new ReentrantLock();
+			stripes[i] = new AccountTable(16);
+			dirty[i] = new IntIntHashMap(16, 0);
+		}
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "transfer-engine-flush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+		logger.info("Created the transfer engine with " + count + " stripes, flushing every " + flushIntervalMs + "ms and holding about " + maxAccounts + " accounts");
+	}
+
+	private int stripeOf(int accountID) {
+		return Stripes.index(accountID, stripeShift);
+	}
+
+	//Called with the account's stripe locked. NO_SLOT when it isn't held or isn't the client's
+	private int heldSlot(int stripe, int clientID, int accountID) {
+		AccountTable table = stripes[stripe];
+		int slot = table.slotOf(accountID);
+		return slot != AccountTable.NO_SLOT && table.clientID(slot) == clientID ? slot : AccountTable.NO_SLOT;
+	}
+
+	//Reads the account in with no stripe locked, installed only if nothing got there first and the stripe wasn't written since
+	private void load(int clientID, int accountID) throws couldNotConnectToDatabaseException {
+		int stripe = stripeOf(accountID);
+		long writes;
+		locks[stripe].lock();
+		try {
+			if(stripes[stripe].slotOf(accountID) != AccountTable.NO_SLOT) {
+				return;
+			}
+			writes = backingWrites[stripe];
+		} finally {
+			locks[stripe].unlock();
+		}
+		Account account;
+		try {
+			account = backing.getAccountVia2IDs(clientID, accountID);
+		} catch (AccountNotFoundException | AccountClientMismatchException e) {
+			return;
+		}
+		if(account == null || account.getAccountID() == -1) {
+			return;
+		}
+		locks[stripe].lock();
+		try {
+			if(stripes[stripe].slotOf(accountID) == AccountTable.NO_SLOT && backingWrites[stripe] == writes) {
+				stripes[stripe].insert(accountID, clientID, account.getAmount());
+			}
+		} finally {
+			locks[stripe].unlock();
+		}
+	}
+
+	//for when the engine has changed a row in the backing store itself
+	private void wroteToBacking(int accountID) {
+		int stripe = stripeOf(accountID);
+		locks[stripe].lock();
+		try {
+			backingWrites[stripe]++;
+		} finally {
+			locks[stripe].unlock();
+		}
+	}
+
+	//accountID -> amount for the client's accounts that changed since the last flush
+	private IntIntHashMap dirtyOfClient(int clientID) {
+		IntIntHashMap amounts = new IntIntHashMap(16, Integer.MIN_VALUE);
+		for(int i = 0; i < stripes.length; i++) {
+			IntIntHashMap changed = dirty[i];
+			locks[i].lock();
+			try {
+				if(changed.size() != 0) {
+					stripes[i].forEachOfClient(clientID, (accountID, owner, amount) -> {
+						if(changed.get(accountID) == DIRTY) {
+							amounts.put(accountID, amount);
+						}
+					});
+				}
+			} finally {
+				locks[i].unlock();
+			}
+		}
+		return amounts;
+	}
+
+	private static List<Account> overlay(List<Account> accounts, IntIntHashMap amounts) {
+		List<Account> laid = new ArrayList<Account>(accounts.size());
+		for(Account account : accounts) {
+			int amount = amounts.get(account.getAccountID());
+			laid.add(amount == Integer.MIN_VALUE ? account : new Account(account.getAccountID(), account.getClientID(), amount));
+		}
+		return laid;
+	}
+
+	//A dirty amount can move an account into or out of a range, so ranges are taken from the client's whole list
+	private static List<Account> inRange(List<Account> accounts, int betweenLow, int betweenHigh, int afterAccountID, int limit) {
+		List<Account> found = new ArrayList<Account>();
+		for(Account account : accounts) {
+			if(found.size() == limit) {
+				break;
+			}
+			if(account.getAccountID() > afterAccountID && account.getAmount() >= betweenLow && account.getAmount() <= betweenHigh) {
+				found.add(account);
+			}
+		}
+		return found;
+	}
+
+	private Account changeAmount(int stripe, int slot, long newAmount) throws couldNotConnectToDatabaseException {
+		AccountTable table = stripes[stripe];
+		if(newAmount > Integer.MAX_VALUE) {
+			throw new couldNotConnectToDatabaseException("Out of range value for column 'amount' in account " + table.accountID(slot));
+		}
+		table.setAmount(slot, (int) newAmount);
+		dirty[stripe].put(table.accountID(slot), DIRTY);
+		return new Account(table.accountID(slot), table.clientID(slot), (int) newAmount);
+	}
+
+	@Override
+	public Account makeAccountForClient(int amount, int clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		return backing.makeAccountForClient(amount, clientID);
+	}
+
+	@Override
+	public List<Account> makeAccounts(List<Account> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		return backing.makeAccounts(accounts);
+	}
+
+	@Override
+	public List<Account> getAccountsViaClientID(int clientID) throws couldNotConnectToDatabaseException, AccountNotFoundException {
+		List<Account> accounts = backing.getAccountsViaClientID(clientID);
+		return overlay(accounts, dirtyOfClient(clientID));
+	}
+
+	@Override
+	public List<Account> getAccountsPage(int clientID, int afterAccountID, int limit) throws couldNotConnectToDatabaseException {
+		List<Account> accounts = backing.getAccountsPage(clientID, afterAccountID, limit);
+		return overlay(accounts, dirtyOfClient(clientID));
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenPage(int clientID, int betweenLow, int betweenHigh, int afterAccountID, int limit) throws couldNotConnectToDatabaseException, ClientNotFoundException {
+		IntIntHashMap amounts = dirtyOfClient(clientID);
+		if(amounts.size() == 0) {
+			return backing.getAccountsBetweenPage(clientID, betweenLow, betweenHigh, afterAccountID, limit);
+		}
+		List<Account> accounts;
+		try {
+			accounts = backing.getAccountsViaClientID(clientID);
+		} catch (AccountNotFoundException e) {
+			return backing.getAccountsBetweenPage(clientID, betweenLow, betweenHigh, afterAccountID, limit);
+		}
+		return inRange(overlay(accounts, amounts), betweenLow, betweenHigh, afterAccountID, limit);
+	}
+
+	@Override
+	public List<Account> getAccountsBetweenTwoValues(int clientID, int betweenLow, int betweenHigh) throws couldNotConnectToDatabaseException, AccountNotFoundException, ClientNotFoundException {
+		IntIntHashMap amounts = dirtyOfClient(clientID);
+		if(amounts.size() == 0) {
+			return backing.getAccountsBetweenTwoValues(clientID, betweenLow, betweenHigh);
+		}
+		return inRange(overlay(backing.getAccountsViaClientID(clientID), amounts), betweenLow, betweenHigh, Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public Account getAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException {
+		int stripe = stripeOf(accountID);
+		locks[stripe].lock();
+		try {
+			//only what's already held, reads don't load anything in
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot != AccountTable.NO_SLOT && table.clientID(slot) == clientID) {
+				return new Account(accountID, clientID, table.amount(slot));
+			}
+		} finally {
+			locks[stripe].unlock();
+		}
+		return backing.getAccountVia2IDs(clientID, accountID);
+	}
+
+	@Override
+	public Account updateAccountVia2IDs(int clientID, int accountID, int newAmount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		load(clientID, accountID);
+		int stripe = stripeOf(accountID);
+		locks[stripe].lock();
+		try {
+			int slot = heldSlot(stripe, clientID, accountID);
+			if(slot != AccountTable.NO_SLOT) {
+				return changeAmount(stripe, slot, newAmount);
+			}
+		} finally {
+			locks[stripe].unlock();
+		}
+		try {
+			return backing.updateAccountVia2IDs(clientID, accountID, newAmount);
+		} finally {
+			wroteToBacking(accountID);
+		}
+	}
+
+	@Override
+	public Account adjustAmountVia2IDs(int clientID, int accountID, int delta) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		load(clientID, accountID);
+		int stripe = stripeOf(accountID);
+		locks[stripe].lock();
+		try {
+			int slot = heldSlot(stripe, clientID, accountID);
+			if(slot != AccountTable.NO_SLOT) {
+				int amount = stripes[stripe].amount(slot);
+				//same floor as the repository, only withdrawals can't go below 0
+				if(delta < 0 && (long) amount + delta < 0) {
+					throw new InsufficientFundsException("Account " + accountID + " has " + amount + ", which isn't enough to take out " + (-delta));
+				}
+				return changeAmount(stripe, slot, (long) amount + delta);
+			}
+		} finally {
+			locks[stripe].unlock();
+		}
+		try {
+			return backing.adjustAmountVia2IDs(clientID, accountID, delta);
+		} finally {
+			wroteToBacking(accountID);
+		}
+	}
+
+	@Override
+	public List<Account> transferBetweenAccounts(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		load(fromClientID, fromAccountID);
+		load(toClientID, toAccountID);
+		int fromStripe = stripeOf(fromAccountID);
+		int toStripe = stripeOf(toAccountID);
+		int first = Math.min(fromStripe, toStripe);
+		int second = Math.max(fromStripe, toStripe);
+		//lowest stripe first, the same order every caller uses, so transfers can't deadlock
+		locks[first].lock();
+		locks[second].lock();
+		try {
+			int fromSlot = heldSlot(fromStripe, fromClientID, fromAccountID);
+			int toSlot = heldSlot(toStripe, toClientID, toAccountID);
+			if(fromSlot != AccountTable.NO_SLOT && toSlot != AccountTable.NO_SLOT) {
+				int fromAmount = stripes[fromStripe].amount(fromSlot);
+				if(fromAmount < amount) {
+					throw new InsufficientFundsException("Account " + fromAccountID + " has " + fromAmount + ", which isn't enough to take out " + amount);
+				}
+				long toAmount = (long) stripes[toStripe].amount(toSlot) + amount;
+				if(toAmount > Integer.MAX_VALUE) {
+					throw new couldNotConnectToDatabaseException("Out of range value for column 'amount' in account " + toAccountID);
+				}
+				List<Account> accounts = new ArrayList<Account>(2);
+				accounts.add(changeAmount(fromStripe, fromSlot, fromAmount - amount));
+				accounts.add(changeAmount(toStripe, toSlot, toAmount));
+				return accounts;
+			}
+		} finally {
+			locks[second].unlock();
+			locks[first].unlock();
+		}
+		return transferThroughBacking(fromClientID, fromAccountID, toClientID, toAccountID, amount);
+	}
+
+	//One side isn't held, so both stripes are flushed and stay locked while the backing store tries it
+	private List<Account> transferThroughBacking(int fromClientID, int fromAccountID, int toClientID, int toAccountID, int amount) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		int fromStripe = stripeOf(fromAccountID);
+		int toStripe = stripeOf(toAccountID);
+		int first = Math.min(fromStripe, toStripe);
+		int second = Math.max(fromStripe, toStripe);
+		synchronized (flushLock) {
+			locks[first].lock();
+			locks[second].lock();
+			try {
+				backing.updateAmounts(takeDirty(first));
+				if(second != first) {
+					backing.updateAmounts(takeDirty(second));
+				}
+				List<Account> accounts;
+				try {
+					accounts = backing.transferBetweenAccounts(fromClientID, fromAccountID, toClientID, toAccountID, amount);
+				} finally {
+					backingWrites[first]++;
+					backingWrites[second]++;
+				}
+				//it went through after all, so whichever side is loaded takes the amount the backing store ended up with
+				for(Account account : accounts) {
+					AccountTable table = stripes[stripeOf(account.getAccountID())];
+					int slot = table.slotOf(account.getAccountID());
+					if(slot != AccountTable.NO_SLOT) {
+						table.setAmount(slot, account.getAmount());
+					}
+				}
+				return accounts;
+			} finally {
+				locks[second].unlock();
+				locks[first].unlock();
+			}
+		}
+	}
+
+	@Override
+	public Account deleteAccountVia2IDs(int clientID, int accountID) throws couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		int stripe = stripeOf(accountID);
+		locks[stripe].lock();
+		try {
+			Account account;
+			try {
+				account = backing.deleteAccountVia2IDs(clientID, accountID);
+			} finally {
+				backingWrites[stripe]++;
+			}
+			AccountTable table = stripes[stripe];
+			int slot = table.slotOf(accountID);
+			if(slot != AccountTable.NO_SLOT) {
+				//the backing store had an older amount, the one given back should be what the account really had
+				account = new Account(accountID, clientID, table.amount(slot));
+				table.remove(slot);
+				dirty[stripe].remove(accountID);
+			}
+			return account;
+		} finally {
+			locks[stripe].unlock();
+		}
+	}
+
+	//Called with the stripe locked
+	private List<Account> takeDirty(int stripe) {
+		AccountTable table = stripes[stripe];
+		IntIntHashMap changed = dirty[stripe];
+		List<Account> accounts = new ArrayList<Account>(changed.size());
+		if(changed.size() == 0) {
+			return accounts;
+		}
+		table.forEach((accountID, clientID, amount) -> {
+			if(changed.get(accountID) == DIRTY) {
+				accounts.add(new Account(accountID, clientID, amount));
+			}
+		});
+		changed.clear();
+		return accounts;
+	}
+
+	//Copies the dirty amounts out a stripe at a time and writes them as one batch, a failed write marks them dirty again
+	public int flush() throws couldNotConnectToDatabaseException {
+		synchronized (flushLock) {
+			List<Account> accounts = new ArrayList<Account>();
+			for(int i = 0; i < stripes.length; i++) {
+				locks[i].lock();
+				try {
+					accounts.addAll(takeDirty(i));
+				} finally {
+					locks[i].unlock();
+				}
+			}
+			if(accounts.isEmpty()) {
+				evictCold(accounts);
+				return 0;
+			}
+			try {
+				backing.updateAmounts(accounts);
+			} catch (couldNotConnectToDatabaseException e) {
+				for(Account account : accounts) {
+					int stripe = stripeOf(account.getAccountID());
+					locks[stripe].lock();
+					try {
+						if(stripes[stripe].slotOf(account.getAccountID()) != AccountTable.NO_SLOT) {
+							dirty[stripe].put(account.getAccountID(), DIRTY);
+						}
+					} finally {
+						locks[stripe].unlock();
+					}
+				}
+				throw e;
+			}
+			evictCold(accounts);
+			return accounts.size();
+		}
+	}
+
+	//flushLock is held. Drops the clean accounts that weren't just written from stripes over their share
+	private void evictCold(List<Account> written) {
+		IntIntHashMap hot = new IntIntHashMap(written.size(), 0);
+		for(Account account : written) {
+			hot.put(account.getAccountID(), DIRTY);
+		}
+		int evicted = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].lock();
+			try {
+				AccountTable table = stripes[i];
+				if(table.size() <= stripeCapacity) {
+					continue;
+				}
+				IntIntHashMap changed = dirty[i];
+				List<Integer> cold = new ArrayList<Integer>();
+				table.forEach((accountID, clientID, amount) -> {
+					if(changed.get(accountID) != DIRTY && hot.get(accountID) != DIRTY) {
+						cold.add(accountID);
+					}
+				});
+				for(int accountID : cold) {
+					table.remove(table.slotOf(accountID));
+				}
+				evicted += cold.size();
+			} finally {
+				locks[i].unlock();
+			}
+		}
+		if(evicted > 0) {
+			logger.info("The transfer engine dropped " + evicted + " cold accounts after a flush");
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (couldNotConnectToDatabaseException e) {
+			logger.warn("The transfer engine couldn't flush, it'll try again. Exception message is: " + e.getMessage());
+		}
+	}
+
+	//Stops the background flush and writes out whatever is left
+	public void close() {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flushQuietly();
+	}
+
+	//the worst stripe's average probe length, so the tests can check the stripes don't cluster the tables' keys
+	double worstProbeLength() {
+		double worst = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].lock();
+			try {
+				worst = Math.max(worst, stripes[i].averageProbeLength());
+			} finally {
+				locks[i].unlock();
+			}
+		}
+		return worst;
+	}
+
+	public int size() {
+		int size = 0;
+		for(int i = 0; i < stripes.length; i++) {
+			locks[i].lock();
+			try {
+				size += stripes[i].size();
+			} finally {
+				locks[i].unlock();
+			}
+		}
+		return size;
+	}
+
+	public AccountStore getBacking() {
+		return backing;
+	}
+
+}
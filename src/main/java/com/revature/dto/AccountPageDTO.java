@@ -0,0 +1,43 @@
+package com.revature.dto;
+
+import java.util.List;
+
+import com.revature.model.Account;
+
+//One page of a client's accounts. nextCursor is what to pass as cursor= to get the next page, and is null on the last page
+public class AccountPageDTO {
+
+	private List<Account> accounts;
+	private String nextCursor;
+
+	public AccountPageDTO() {
+		super();
+	}
+
+	public AccountPageDTO(List<Account> accounts, String nextCursor) {
+		this.accounts = accounts;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Account> getAccounts() {
+		return accounts;
+	}
+
+	public void setAccounts(List<Account> accounts) {
+		this.accounts = accounts;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	@Override
+	public String toString() {
+		return "AccountPageDTO [accounts=" + accounts + ", nextCursor=" + nextCursor + "]";
+	}
+
+}
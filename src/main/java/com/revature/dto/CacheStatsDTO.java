@@ -0,0 +1,94 @@
+package com.revature.dto;
+
+public class CacheStatsDTO {
+
+	private String cacheName;
+	private int size;
+	private int maxSize;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long expirations;
+
+	public CacheStatsDTO() {
+		super();
+	}
+
+	public CacheStatsDTO(String cacheName, int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+		this.cacheName = cacheName;
+		this.size = size;
+		this.maxSize = maxSize;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.expirations = expirations;
+	}
+
+	public String getCacheName() {
+		return cacheName;
+	}
+
+	public void setCacheName(String cacheName) {
+		this.cacheName = cacheName;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public void setEvictions(long evictions) {
+		this.evictions = evictions;
+	}
+
+	public long getExpirations() {
+		return expirations;
+	}
+
+	public void setExpirations(long expirations) {
+		this.expirations = expirations;
+	}
+
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStatsDTO [cacheName=" + cacheName + ", size=" + size + ", maxSize=" + maxSize + ", hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + ", expirations=" + expirations + "]";
+	}
+
+}
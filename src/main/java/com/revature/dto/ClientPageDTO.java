@@ -0,0 +1,43 @@
+package com.revature.dto;
+
+import java.util.List;
+
+import com.revature.model.Client;
+
+//One page of clients. nextAfter is what to pass as after= to get the next page, and is null on the last page
+public class ClientPageDTO {
+
+	private List<Client> clients;
+	private Integer nextAfter;
+
+	public ClientPageDTO() {
+		super();
+	}
+
+	public ClientPageDTO(List<Client> clients, Integer nextAfter) {
+		this.clients = clients;
+		this.nextAfter = nextAfter;
+	}
+
+	public List<Client> getClients() {
+		return clients;
+	}
+
+	public void setClients(List<Client> clients) {
+		this.clients = clients;
+	}
+
+	public Integer getNextAfter() {
+		return nextAfter;
+	}
+
+	public void setNextAfter(Integer nextAfter) {
+		this.nextAfter = nextAfter;
+	}
+
+	@Override
+	public String toString() {
+		return "ClientPageDTO [clients=" + clients + ", nextAfter=" + nextAfter + "]";
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.revature.dto;
+
+public class ExecutorStatsDTO {
+
+	private String mode;
+	private int threads;
+	private int activeThreads;
+	private int queuedCalls;
+	private int queueCapacity;
+	private long completedCalls;
+	private long rejectedCalls;
+
+	public ExecutorStatsDTO() {
+		super();
+	}
+
+	public ExecutorStatsDTO(String mode, int threads, int activeThreads, int queuedCalls, int queueCapacity, long completedCalls,
+			long rejectedCalls) {
+		this.mode = mode;
+		this.threads = threads;
+		this.activeThreads = activeThreads;
+		this.queuedCalls = queuedCalls;
+		this.queueCapacity = queueCapacity;
+		this.completedCalls = completedCalls;
+		this.rejectedCalls = rejectedCalls;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getActiveThreads() {
+		return activeThreads;
+	}
+
+	public void setActiveThreads(int activeThreads) {
+		this.activeThreads = activeThreads;
+	}
+
+	public int getQueuedCalls() {
+		return queuedCalls;
+	}
+
+	public void setQueuedCalls(int queuedCalls) {
+		this.queuedCalls = queuedCalls;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getCompletedCalls() {
+		return completedCalls;
+	}
+
+	public void setCompletedCalls(long completedCalls) {
+		this.completedCalls = completedCalls;
+	}
+
+	public long getRejectedCalls() {
+		return rejectedCalls;
+	}
+
+	public void setRejectedCalls(long rejectedCalls) {
+		this.rejectedCalls = rejectedCalls;
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutorStatsDTO [mode=" + mode + ", threads=" + threads + ", activeThreads=" + activeThreads + ", queuedCalls=" + queuedCalls
+				+ ", queueCapacity=" + queueCapacity + ", completedCalls=" + completedCalls + ", rejectedCalls="
+				+ rejectedCalls + "]";
+	}
+
+}
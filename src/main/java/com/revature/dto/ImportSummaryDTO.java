@@ -0,0 +1,59 @@
+package com.revature.dto;
+
+public class ImportSummaryDTO {
+
+	private long imported;
+	private long rejected;
+	private int chunks;
+	private long elapsedMs;
+
+	public ImportSummaryDTO() {
+		super();
+	}
+
+	public ImportSummaryDTO(long imported, long rejected, int chunks, long elapsedMs) {
+		this.imported = imported;
+		this.rejected = rejected;
+		this.chunks = chunks;
+		this.elapsedMs = elapsedMs;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public void setImported(long imported) {
+		this.imported = imported;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(int chunks) {
+		this.chunks = chunks;
+	}
+
+	public long getElapsedMs() {
+		return elapsedMs;
+	}
+
+	public void setElapsedMs(long elapsedMs) {
+		this.elapsedMs = elapsedMs;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportSummaryDTO [imported=" + imported + ", rejected=" + rejected + ", chunks=" + chunks
+				+ ", elapsedMs=" + elapsedMs + "]";
+	}
+
+}
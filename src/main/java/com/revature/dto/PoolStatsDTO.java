@@ -0,0 +1,92 @@
+package com.revature.dto;
+
+public class PoolStatsDTO {
+
+	private String poolName;
+	private int activeConnections;
+	private int idleConnections;
+	private int totalConnections;
+	private int threadsAwaitingConnection;
+	private int maximumPoolSize;
+	private int minimumIdle;
+
+	public PoolStatsDTO() {
+		super();
+	}
+
+	public PoolStatsDTO(String poolName, int activeConnections, int idleConnections, int totalConnections,
+			int threadsAwaitingConnection, int maximumPoolSize, int minimumIdle) {
+		this.poolName = poolName;
+		this.activeConnections = activeConnections;
+		this.idleConnections = idleConnections;
+		this.totalConnections = totalConnections;
+		this.threadsAwaitingConnection = threadsAwaitingConnection;
+		this.maximumPoolSize = maximumPoolSize;
+		this.minimumIdle = minimumIdle;
+	}
+
+	public String getPoolName() {
+		return poolName;
+	}
+
+	public void setPoolName(String poolName) {
+		this.poolName = poolName;
+	}
+
+	public int getActiveConnections() {
+		return activeConnections;
+	}
+
+	public void setActiveConnections(int activeConnections) {
+		this.activeConnections = activeConnections;
+	}
+
+	public int getIdleConnections() {
+		return idleConnections;
+	}
+
+	public void setIdleConnections(int idleConnections) {
+		this.idleConnections = idleConnections;
+	}
+
+	public int getTotalConnections() {
+		return totalConnections;
+	}
+
+	public void setTotalConnections(int totalConnections) {
+		this.totalConnections = totalConnections;
+	}
+
+	public int getThreadsAwaitingConnection() {
+		return threadsAwaitingConnection;
+	}
+
+	public void setThreadsAwaitingConnection(int threadsAwaitingConnection) {
+		this.threadsAwaitingConnection = threadsAwaitingConnection;
+	}
+
+	public int getMaximumPoolSize() {
+		return maximumPoolSize;
+	}
+
+	public void setMaximumPoolSize(int maximumPoolSize) {
+		this.maximumPoolSize = maximumPoolSize;
+	}
+
+	public int getMinimumIdle() {
+		return minimumIdle;
+	}
+
+	public void setMinimumIdle(int minimumIdle) {
+		this.minimumIdle = minimumIdle;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStatsDTO [poolName=" + poolName + ", activeConnections=" + activeConnections + ", idleConnections="
+				+ idleConnections + ", totalConnections=" + totalConnections + ", threadsAwaitingConnection="
+				+ threadsAwaitingConnection + ", maximumPoolSize=" + maximumPoolSize + ", minimumIdle=" + minimumIdle
+				+ "]";
+	}
+
+}
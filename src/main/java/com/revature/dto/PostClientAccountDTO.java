@@ -0,0 +1,70 @@
+package com.revature.dto;
+
+//One account in a bulk request that can cover many clients, so it carries the client ID that the path normally would
+public class PostClientAccountDTO {
+
+	private String clientID;
+	private String amount;
+	
+	public PostClientAccountDTO() {
+		super();
+	}
+	
+	public PostClientAccountDTO(String clientID, String amount) {
+		this.clientID = clientID;
+		this.amount = amount;
+	}
+
+	public String getClientID() {
+		return clientID;
+	}
+
+	public void setClientID(String clientID) {
+		this.clientID = clientID;
+	}
+
+	public String getAmount() {
+		return amount;
+	}
+
+	public void setAmount(String amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((amount == null) ? 0 : amount.hashCode());
+		result = prime * result + ((clientID == null) ? 0 : clientID.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PostClientAccountDTO other = (PostClientAccountDTO) obj;
+		if (amount == null) {
+			if (other.amount != null)
+				return false;
+		} else if (!amount.equals(other.amount))
+			return false;
+		if (clientID == null) {
+			if (other.clientID != null)
+				return false;
+		} else if (!clientID.equals(other.clientID))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "PostClientAccountDTO [clientID=" + clientID + ", amount=" + amount + "]";
+	}
+	
+}
@@ -0,0 +1,49 @@
+package com.revature.dto;
+
+//Where the money goes in a transfer, the account it comes out of is in the path
+public class PostTransferDTO {
+
+	private String toClientID;
+	private String toAccountID;
+	private String amount;
+	
+	public PostTransferDTO() {
+		super();
+	}
+	
+	public PostTransferDTO(String toClientID, String toAccountID, String amount) {
+		this.toClientID = toClientID;
+		this.toAccountID = toAccountID;
+		this.amount = amount;
+	}
+
+	public String getToClientID() {
+		return toClientID;
+	}
+
+	public void setToClientID(String toClientID) {
+		this.toClientID = toClientID;
+	}
+
+	public String getToAccountID() {
+		return toAccountID;
+	}
+
+	public void setToAccountID(String toAccountID) {
+		this.toAccountID = toAccountID;
+	}
+
+	public String getAmount() {
+		return amount;
+	}
+
+	public void setAmount(String amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public String toString() {
+		return "PostTransferDTO [toClientID=" + toClientID + ", toAccountID=" + toAccountID + ", amount=" + amount + "]";
+	}
+	
+}
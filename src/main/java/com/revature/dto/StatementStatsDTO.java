@@ -0,0 +1,85 @@
+package com.revature.dto;
+
+public class StatementStatsDTO {
+
+	private boolean serverPrepare;
+	private int cacheSizePerConnection;
+	private long prepares;
+	private long executes;
+	private long closes;
+	private long preparedStatements;
+
+	public StatementStatsDTO() {
+		super();
+	}
+
+	public StatementStatsDTO(boolean serverPrepare, int cacheSizePerConnection, long prepares, long executes, long closes,
+			long preparedStatements) {
+		this.serverPrepare = serverPrepare;
+		this.cacheSizePerConnection = cacheSizePerConnection;
+		this.prepares = prepares;
+		this.executes = executes;
+		this.closes = closes;
+		this.preparedStatements = preparedStatements;
+	}
+
+	public boolean isServerPrepare() {
+		return serverPrepare;
+	}
+
+	public void setServerPrepare(boolean serverPrepare) {
+		this.serverPrepare = serverPrepare;
+	}
+
+	public int getCacheSizePerConnection() {
+		return cacheSizePerConnection;
+	}
+
+	public void setCacheSizePerConnection(int cacheSizePerConnection) {
+		this.cacheSizePerConnection = cacheSizePerConnection;
+	}
+
+	public long getPrepares() {
+		return prepares;
+	}
+
+	public void setPrepares(long prepares) {
+		this.prepares = prepares;
+	}
+
+	public long getExecutes() {
+		return executes;
+	}
+
+	public void setExecutes(long executes) {
+		this.executes = executes;
+	}
+
+	public long getCloses() {
+		return closes;
+	}
+
+	public void setCloses(long closes) {
+		this.closes = closes;
+	}
+
+	public long getPreparedStatements() {
+		return preparedStatements;
+	}
+
+	public void setPreparedStatements(long preparedStatements) {
+		this.preparedStatements = preparedStatements;
+	}
+
+	public double getExecutesPerPrepare() {
+		return prepares == 0 ? 0 : (double) executes / prepares;
+	}
+
+	@Override
+	public String toString() {
+		return "StatementStatsDTO [serverPrepare=" + serverPrepare + ", cacheSizePerConnection=" + cacheSizePerConnection
+				+ ", prepares=" + prepares + ", executes=" + executes + ", closes=" + closes + ", preparedStatements="
+				+ preparedStatements + "]";
+	}
+
+}
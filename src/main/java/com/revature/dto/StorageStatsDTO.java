@@ -0,0 +1,59 @@
+package com.revature.dto;
+
+public class StorageStatsDTO {
+
+	private String engine;
+	private int accounts;
+	private long heapBytes;
+	private long offHeapBytes;
+
+	public StorageStatsDTO() {
+		super();
+	}
+
+	public StorageStatsDTO(String engine, int accounts, long heapBytes, long offHeapBytes) {
+		this.engine = engine;
+		this.accounts = accounts;
+		this.heapBytes = heapBytes;
+		this.offHeapBytes = offHeapBytes;
+	}
+
+	public String getEngine() {
+		return engine;
+	}
+
+	public void setEngine(String engine) {
+		this.engine = engine;
+	}
+
+	public int getAccounts() {
+		return accounts;
+	}
+
+	public void setAccounts(int accounts) {
+		this.accounts = accounts;
+	}
+
+	public long getHeapBytes() {
+		return heapBytes;
+	}
+
+	public void setHeapBytes(long heapBytes) {
+		this.heapBytes = heapBytes;
+	}
+
+	public long getOffHeapBytes() {
+		return offHeapBytes;
+	}
+
+	public void setOffHeapBytes(long offHeapBytes) {
+		this.offHeapBytes = offHeapBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "StorageStatsDTO [engine=" + engine + ", accounts=" + accounts + ", heapBytes=" + heapBytes
+				+ ", offHeapBytes=" + offHeapBytes + "]";
+	}
+
+}
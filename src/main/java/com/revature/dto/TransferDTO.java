@@ -0,0 +1,41 @@
+package com.revature.dto;
+
+import com.revature.model.Account;
+
+//Both accounts as they are right after a transfer
+public class TransferDTO {
+
+	private Account from;
+	private Account to;
+	
+	public TransferDTO() {
+		super();
+	}
+	
+	public TransferDTO(Account from, Account to) {
+		this.from = from;
+		this.to = to;
+	}
+
+	public Account getFrom() {
+		return from;
+	}
+
+	public void setFrom(Account from) {
+		this.from = from;
+	}
+
+	public Account getTo() {
+		return to;
+	}
+
+	public void setTo(Account to) {
+		this.to = to;
+	}
+
+	@Override
+	public String toString() {
+		return "TransferDTO [from=" + from + ", to=" + to + "]";
+	}
+	
+}
@@ -0,0 +1,27 @@
+package com.revature.exceptions;
+
+
+public class InsufficientFundsException extends Exception {
+
+	public InsufficientFundsException() {
+	}
+
+	public InsufficientFundsException(String message) {
+		super(message);
+	}
+
+	public InsufficientFundsException(Throwable cause) {
+		super(cause);
+	}
+
+	public InsufficientFundsException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public InsufficientFundsException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace) {
+		super(message, cause, enableSuppression, writableStackTrace);
+
+	}
+
+}
@@ -3,8 +3,14 @@ package com.revature.service;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.revature.cache.AccountCache;
+import com.revature.cache.ClientAccountIndex;
 import com.revature.dao.*;
+import com.revature.dto.AccountPageDTO;
 import com.revature.dto.PostAccountDTO;
+import com.revature.dto.PostClientAccountDTO;
+import com.revature.dto.PostTransferDTO;
+import com.revature.dto.TransferDTO;
 import com.revature.exceptions.AccountAddException;
 import com.revature.exceptions.AccountClientMismatchException;
 import com.revature.exceptions.AccountNotFoundException;
@@ -12,23 +18,37 @@ import com.revature.exceptions.BadParameterException;
 import com.revature.exceptions.ClientAlreadyExistsException;
 import com.revature.exceptions.ClientNotFoundException;
 import com.revature.exceptions.EmptyParameterException;
+import com.revature.exceptions.InsufficientFundsException;
 import com.revature.exceptions.couldNotConnectToDatabaseException;
 import com.revature.model.*;
+import com.revature.util.AccountCursor;
+import com.revature.util.ConfigUtil;
 
 public class AccountService {
 
-	private ClientRepository clientRepository;
-	private AccountRepository accountRepository;
+	//read once, these are checked on every request
+	private static final int MAX_BULK = ConfigUtil.getInt("account_bulk_max", 1000);
+	private static final int DEFAULT_PAGE_SIZE = ConfigUtil.getInt("account_page_default", 100);
+	private static final int MAX_PAGE_SIZE = ConfigUtil.getInt("account_page_max", 1000);
+
+	private ClientStore clientRepository;
+	private AccountStore accountRepository;
+	private AccountCache accountCache;
+	private ClientAccountIndex clientAccountIndex;
 	
-	public AccountService(ClientRepository clientRepository) throws couldNotConnectToDatabaseException {
+	public AccountService(ClientStore clientRepository) throws couldNotConnectToDatabaseException {
 		this.clientRepository = clientRepository;
 		boolean created = false;
-		accountRepository = new AccountRepository(clientRepository);
+		accountRepository = StoreFactory.createAccountStore(clientRepository);
+		accountCache = new AccountCache();
+		clientAccountIndex = new ClientAccountIndex();
 	}
 	
 	//Normally, we don't need this and would use the other one, but for testing, we need this to "inject" the mock object into this service
-	public AccountService(ClientRepository clientRepository, AccountRepository accountRepository) {
+	public AccountService(ClientStore clientRepository, AccountStore accountRepository) {
 		this.accountRepository = accountRepository;
+		this.accountCache = new AccountCache();
+		this.clientAccountIndex = new ClientAccountIndex();
 	}
 	
 	
@@ -44,7 +64,12 @@ public class AccountService {
 			errorCulprit++;
 			int amountInt = Integer.parseInt(amount);
 			Account account = null;
-			account = accountRepository.updateAccountVia2IDs(cID, aID, amountInt);
+			//dropped after the write, even a failed one, so a racing read can't leave the old amount cached
+			try {
+				account = accountRepository.updateAccountVia2IDs(cID, aID, amountInt);
+			} finally {
+				invalidate(cID, aID);
+			}
 			if(account != null) {
 				return "The Account, " + account.getAccountID() + ", has had their amount updated to " + account.getAmount();
 			} else {
@@ -65,6 +90,86 @@ public class AccountService {
 		}
 	}
 	
+	public Account deposit(String clientID, String accountID, String amount) throws BadParameterException, EmptyParameterException, couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		return adjustAmount(clientID, accountID, amount, false);
+	}
+	
+	public Account withdraw(String clientID, String accountID, String amount) throws BadParameterException, EmptyParameterException, couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		return adjustAmount(clientID, accountID, amount, true);
+	}
+	
+	//Relative to the amount in the store right now, so two deposits at once both count
+	private Account adjustAmount(String clientID, String accountID, String amount, boolean withdraw) throws BadParameterException, EmptyParameterException, couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		int errorCulprit = 1;
+		try {
+			if(clientID.isBlank() || accountID.isBlank() || amount == null || amount.isBlank()) {
+				throw new EmptyParameterException("When trying to " + (withdraw ? "withdraw from" : "deposit to") + " an account, one or more of the parameters were left blank.");
+			}
+			int cID = Integer.parseInt(clientID);
+			errorCulprit++;
+			int aID = Integer.parseInt(accountID);
+			errorCulprit++;
+			int amountInt = Integer.parseInt(amount);
+			if(amountInt <= 0) {
+				throw new BadParameterException("Amount must be more than 0. User provided " + amount);
+			}
+			try {
+				return accountRepository.adjustAmountVia2IDs(cID, aID, withdraw ? -amountInt : amountInt);
+			} finally {
+				invalidate(cID, aID);
+			}
+		} catch (NumberFormatException e) {
+			if(errorCulprit == 1) {
+				throw new BadParameterException("Client ID must be int value. User provided " + clientID);
+			} else if(errorCulprit == 2) {
+				throw new BadParameterException("Account ID must be int value. User provided " + accountID);
+			} else {
+				throw new BadParameterException("Amount must be int value. User provided " + amount);
+			}
+		}
+	}
+	
+	public TransferDTO transfer(String clientID, String accountID, PostTransferDTO transfer) throws BadParameterException, EmptyParameterException, couldNotConnectToDatabaseException, AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException, InsufficientFundsException {
+		String toClientID = transfer.getToClientID();
+		String toAccountID = transfer.getToAccountID();
+		String amount = transfer.getAmount();
+		if(clientID.isBlank() || accountID.isBlank() || toClientID == null || toClientID.isBlank() || toAccountID == null || toAccountID.isBlank() || amount == null || amount.isBlank()) {
+			throw new EmptyParameterException("When trying to transfer between accounts, one or more of the parameters were left blank.");
+		}
+		int fromCID;
+		int fromAID;
+		int toCID;
+		int toAID;
+		int amountInt;
+		try {
+			fromCID = Integer.parseInt(clientID);
+			fromAID = Integer.parseInt(accountID);
+			toCID = Integer.parseInt(toClientID);
+			toAID = Integer.parseInt(toAccountID);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("Client and Account ID's must be int values. User provided " + clientID + " and " + accountID + " to transfer from, and " + toClientID + " and " + toAccountID + " to transfer to");
+		}
+		try {
+			amountInt = Integer.parseInt(amount);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("Amount must be int value. User provided " + amount);
+		}
+		if(amountInt <= 0) {
+			throw new BadParameterException("Amount must be more than 0. User provided " + amount);
+		}
+		if(fromAID == toAID) {
+			throw new BadParameterException("An account can't transfer to itself. User provided account " + accountID + " for both");
+		}
+		List<Account> accounts;
+		try {
+			accounts = accountRepository.transferBetweenAccounts(fromCID, fromAID, toCID, toAID, amountInt);
+		} finally {
+			invalidate(fromCID, fromAID);
+			invalidate(toCID, toAID);
+		}
+		return new TransferDTO(accounts.get(0), accounts.get(1));
+	}
+	
 	public String addAccount(PostAccountDTO account, String clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException, BadParameterException, AccountAddException, EmptyParameterException {
 		try {
 			if(clientID.isBlank() || account.getAmount().isBlank()) {
@@ -73,21 +178,85 @@ public class AccountService {
 			
 			int id = Integer.parseInt(clientID);
 			int amount = Integer.parseInt(account.getAmount());
-			Account retAccount = accountRepository.makeAccountForClient(amount, id);
+			//nothing else has the new account's ID yet, so it's safe to cache
+			long version = accountCache.version(id);
+			Account retAccount;
+			try {
+				retAccount = accountRepository.makeAccountForClient(amount, id);
+			} finally {
+				clientAccountIndex.invalidate(id);
+			}
+			accountCache.put(retAccount, version);
 			return "Account " + retAccount.getAccountID() + " with amount of " + retAccount.getAmount() + " for Client " + retAccount.getClientID() + " was added successfully.";
 		} catch (NumberFormatException e) {
 			throw new BadParameterException("Client ID and amount in the account must be int values. User provided " + clientID + " for client ID and " + account.getAmount() + " for amount in the account");
 		}
 	}
 	
+	//Makes every account in the list for the one client in the path
+	public List<Account> addAccounts(List<PostAccountDTO> accounts, String clientID) throws couldNotConnectToDatabaseException, ClientNotFoundException, BadParameterException, EmptyParameterException {
+		checkBulkSize(accounts);
+		ArrayList<PostClientAccountDTO> clientAccounts = new ArrayList<PostClientAccountDTO>(accounts.size());
+		for(PostAccountDTO account : accounts) {
+			clientAccounts.add(new PostClientAccountDTO(clientID, account == null ? null : account.getAmount()));
+		}
+		return addAccounts(clientAccounts);
+	}
+	
+	//Everything is checked first, and if any client is missing none of the accounts are made
+	public List<Account> addAccounts(List<PostClientAccountDTO> accounts) throws couldNotConnectToDatabaseException, ClientNotFoundException, BadParameterException, EmptyParameterException {
+		checkBulkSize(accounts);
+		ArrayList<Account> toMake = new ArrayList<Account>(accounts.size());
+		for(PostClientAccountDTO account : accounts) {
+			if(account == null || account.getClientID() == null || account.getAmount() == null || account.getClientID().isBlank() || account.getAmount().isBlank()) {
+				throw new EmptyParameterException("When trying to create accounts, one of the parameters was left blank.");
+			}
+			try {
+				toMake.add(new Account(-1, Integer.parseInt(account.getClientID()), Integer.parseInt(account.getAmount())));
+			} catch (NumberFormatException e) {
+				throw new BadParameterException("Client ID and amount in the account must be int values. User provided " + account.getClientID() + " for client ID and " + account.getAmount() + " for amount in the account");
+			}
+		}
+		long[] versions = new long[toMake.size()];
+		for(int i = 0; i < versions.length; i++) {
+			versions[i] = accountCache.version(toMake.get(i).getClientID());
+		}
+		List<Account> made;
+		try {
+			made = accountRepository.makeAccounts(toMake);
+		} finally {
+			for(Account account : toMake) {
+				clientAccountIndex.invalidate(account.getClientID());
+			}
+		}
+		//made comes back in the same order as toMake
+		for(int i = 0; i < made.size(); i++) {
+			accountCache.put(made.get(i), versions[i]);
+		}
+		return made;
+	}
+	
+	private static void checkBulkSize(List<?> accounts) throws EmptyParameterException, BadParameterException {
+		if(accounts == null || accounts.isEmpty()) {
+			throw new EmptyParameterException("When trying to create accounts, no accounts were given.");
+		}
+		if(accounts.size() > MAX_BULK) {
+			throw new BadParameterException("At most " + MAX_BULK + " accounts can be made at once. User provided " + accounts.size());
+		}
+	}
+	
 	public List<Account> getAccountsByClientID(String clientID) throws BadParameterException, AccountNotFoundException, couldNotConnectToDatabaseException, EmptyParameterException{
 		try {
 			if(clientID.isBlank()) {
 				throw new EmptyParameterException("When trying to get all of the accounts of a specific client, the Client ID parameter was left blank.");
 			}
 			int cID = Integer.parseInt(clientID);
-			List<Account> accountList = new ArrayList<Account>();
-			accountList = accountRepository.getAccountsViaClientID(cID);
+			List<Account> accountList = clientAccountIndex.getAccounts(cID);
+			if(accountList == null) {
+				long version = clientAccountIndex.version(cID);
+				accountList = accountRepository.getAccountsViaClientID(cID);
+				clientAccountIndex.put(cID, accountList, version);
+			}
 			if(accountList.size() == 0) {
 				throw new AccountNotFoundException("No accounts could be found for this user");
 			}
@@ -97,6 +266,62 @@ public class AccountService {
 		}
 	}
 	
+	//One keyset page in account ID order, cursor is the previous page's nextCursor
+	public AccountPageDTO getAccountsPage(String clientID, String lowVal, String highVal, String cursor, String limit) throws BadParameterException, AccountNotFoundException, couldNotConnectToDatabaseException, EmptyParameterException, ClientNotFoundException {
+		if(clientID.isBlank()) {
+			throw new EmptyParameterException("When trying to get all of the accounts of a specific client, the Client ID parameter was left blank.");
+		}
+		int cID;
+		try {
+			cID = Integer.parseInt(clientID);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("Client ID must be int value. User provided " + clientID);
+		}
+		int pageSize = DEFAULT_PAGE_SIZE;
+		int maxPageSize = MAX_PAGE_SIZE;
+		try {
+			if(limit != null && !limit.isBlank()) {
+				pageSize = Integer.parseInt(limit);
+			}
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("limit must be an int value. User provided " + limit);
+		}
+		if(pageSize < 1 || pageSize > maxPageSize) {
+			throw new BadParameterException("limit must be between 1 and " + maxPageSize + ". User provided " + pageSize);
+		}
+		int afterAccountID = cursor == null || cursor.isBlank() ? 0 : AccountCursor.decode(cursor, cID);
+		
+		List<Account> page;
+		if(lowVal != null && highVal != null) {
+			int betweenLow;
+			int betweenHigh;
+			try {
+				betweenLow = Integer.parseInt(lowVal);
+				betweenHigh = Integer.parseInt(highVal);
+			} catch (NumberFormatException e) {
+				throw new BadParameterException("Lower and Higher Values must be int values. User provided " + lowVal + " and " + highVal);
+			}
+			if(betweenLow >= betweenHigh) {
+				throw new BadParameterException("The lower value parameter must be lower than the higher value parameter, the user input " + lowVal + " as higher than " + highVal);
+			}
+			try {
+				page = accountRepository.getAccountsBetweenPage(cID, betweenLow, betweenHigh, afterAccountID, pageSize);
+			} catch (ClientNotFoundException e) {
+				throw new ClientNotFoundException("The client with the ID " + clientID + " was not found");
+			}
+			if(page.isEmpty() && afterAccountID == 0) {
+				throw new AccountNotFoundException("No accounts with amounts between " + betweenLow + " and " + betweenHigh + " were found.");
+			}
+		} else {
+			page = accountRepository.getAccountsPage(cID, afterAccountID, pageSize);
+			if(page.isEmpty() && afterAccountID == 0) {
+				throw new AccountNotFoundException("No accounts for client id " + cID + " were found.");
+			}
+		}
+		String nextCursor = page.size() < pageSize ? null : AccountCursor.encode(cID, page.get(page.size() - 1).getAccountID());
+		return new AccountPageDTO(page, nextCursor);
+	}
+	
 	public Account getAccountBy2IDs(String clientID, String accountID) throws BadParameterException, ClientNotFoundException, couldNotConnectToDatabaseException, ClientAlreadyExistsException, AccountNotFoundException, EmptyParameterException, AccountClientMismatchException {
 		try {
 			if(clientID.isBlank() || accountID.isBlank()) {
@@ -104,8 +329,13 @@ public class AccountService {
 			}
 			int cID = Integer.parseInt(clientID);
 			int aID = Integer.parseInt(accountID);
-			Account account = null;
-			account = accountRepository.getAccountVia2IDs(cID, aID);
+			//only accounts that were found get cached, so misses and mismatches always go to the repository
+			Account account = accountCache.get(cID, aID);
+			if(account == null) {
+				long version = accountCache.version(cID);
+				account = accountRepository.getAccountVia2IDs(cID, aID);
+				accountCache.put(account, version);
+			}
 			if(account == null || account.getAccountID() == -1) {
 				throw new AccountNotFoundException("Account with id of " + accountID + " and client ID of " + clientID + " was not found");
 			}
@@ -117,6 +347,15 @@ public class AccountService {
 		}
 	}
 	
+	//a client without accounts is left out, the range query then says whether the client exists at all
+	private void indexClient(int clientID) throws couldNotConnectToDatabaseException {
+		long version = clientAccountIndex.version(clientID);
+		try {
+			clientAccountIndex.put(clientID, accountRepository.getAccountsViaClientID(clientID), version);
+		} catch (AccountNotFoundException e) {
+		}
+	}
+	
 	public List<Account> getAccountsBetweenTwoValues(String clientID, String lowVal, String highVal) throws BadParameterException, AccountNotFoundException, couldNotConnectToDatabaseException, EmptyParameterException, ClientNotFoundException{
 		int errorCulprit = 1;
 		try {
@@ -131,8 +370,17 @@ public class AccountService {
 			if(betweenLow >= betweenHigh) {
 				throw new BadParameterException("The lower value parameter must be lower than the higher value parameter, the user input " + lowVal + " as higher than " + highVal);
 			}
-			List<Account> accountList = new ArrayList<Account>();
-			accountList = accountRepository.getAccountsBetweenTwoValues(cID, betweenLow, betweenHigh);
+			//a miss loads the client's whole list into the index, so clients that only ever ask for ranges get indexed too
+			List<Account> accountList = clientAccountIndex.getAccountsBetween(cID, betweenLow, betweenHigh);
+			if(accountList == null && clientAccountIndex.isEnabled()) {
+				indexClient(cID);
+				accountList = clientAccountIndex.getAccountsBetween(cID, betweenLow, betweenHigh);
+			}
+			if(accountList == null) {
+				accountList = accountRepository.getAccountsBetweenTwoValues(cID, betweenLow, betweenHigh);
+			} else if(accountList.size() == 0) {
+				throw new AccountNotFoundException("No accounts with amounts between " + betweenLow + " and " + betweenHigh + " were found.");
+			}
 			if(accountList.size() == 0) {
 				throw new AccountNotFoundException("No accounts could be found for this user");
 			}
@@ -158,7 +406,11 @@ public class AccountService {
 			int cID = Integer.parseInt(clientID);
 			int aID = Integer.parseInt(accountID);
 			Account account = null;
-			account = accountRepository.deleteAccountVia2IDs(cID, aID);
+			try {
+				account = accountRepository.deleteAccountVia2IDs(cID, aID);
+			} finally {
+				invalidate(cID, aID);
+			}
 			if(account != null) {
 				return "Account " + account.getAccountID() + " with amount of " + account.getAmount() + " for Client " + account.getClientID() + " was deleted successfully.";
 			}
@@ -176,5 +428,23 @@ public class AccountService {
 		return "Account could not be deleted.";
 	}
 	
+	//Has to come after the store call, both caches turn away loads that started before it
+	private void invalidate(int clientID, int accountID) {
+		accountCache.invalidate(clientID, accountID);
+		clientAccountIndex.invalidate(clientID);
+	}
+	
+	public AccountStore getAccountStore() {
+		return accountRepository;
+	}
+	
+	public AccountCache getAccountCache() {
+		return accountCache;
+	}
+	
+	public ClientAccountIndex getClientAccountIndex() {
+		return clientAccountIndex;
+	}
+	
 }
 
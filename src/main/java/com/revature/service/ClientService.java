@@ -1,9 +1,20 @@
 package com.revature.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.revature.dao.*;
+import com.revature.dto.ClientPageDTO;
+import com.revature.dto.ImportSummaryDTO;
 import com.revature.dto.PostClientDTO;
 import com.revature.exceptions.BadParameterException;
 import com.revature.exceptions.ClientAddException;
@@ -12,17 +23,26 @@ import com.revature.exceptions.ClientNotFoundException;
 import com.revature.exceptions.EmptyParameterException;
 import com.revature.exceptions.couldNotConnectToDatabaseException;
 import com.revature.model.*;
+import com.revature.util.ConfigUtil;
 
 public class ClientService {
 
-	private ClientRepository clientRepository;
+	private static Logger logger = LoggerFactory.getLogger(ClientService.class);
+	private static final ObjectMapper mapper = new ObjectMapper();
+	//read once, these are checked on every request
+	private static final int DEFAULT_PAGE_SIZE = ConfigUtil.getInt("client_page_default", 100);
+	private static final int MAX_PAGE_SIZE = ConfigUtil.getInt("client_page_max", 1000);
+	private static final int MAX_BULK = ConfigUtil.getInt("client_bulk_max", 1000);
+	private static final int IMPORT_CHUNK_SIZE = ConfigUtil.getInt("client_import_chunk_size", 1000);
+
+	private ClientStore clientRepository;
 	
 	public ClientService() throws couldNotConnectToDatabaseException {
-		clientRepository = new ClientRepository();
+		clientRepository = StoreFactory.createClientStore();
 	}
 	
 	//Normally, we don't need this and would use the other one, but for testing, we need this to "inject" the mock object into this service
-	public ClientService(ClientRepository clientRepository) {
+	public ClientService(ClientStore clientRepository) {
 		this.clientRepository = clientRepository;
 	}
 	
@@ -50,6 +70,40 @@ public class ClientService {
 	
 	
 	
+	//after is the last client ID of the previous page, leave it out for the first page
+	public ClientPageDTO getClientsPage(String after, String limit) throws BadParameterException, couldNotConnectToDatabaseException {
+		int afterID = 0;
+		int pageSize = DEFAULT_PAGE_SIZE;
+		int maxPageSize = MAX_PAGE_SIZE;
+		try {
+			if(after != null && !after.isBlank()) {
+				afterID = Integer.parseInt(after);
+			}
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("after must be a client id. User provided " + after);
+		}
+		try {
+			if(limit != null && !limit.isBlank()) {
+				pageSize = Integer.parseInt(limit);
+			}
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("limit must be an int value. User provided " + limit);
+		}
+		if(pageSize < 1 || pageSize > maxPageSize) {
+			throw new BadParameterException("limit must be between 1 and " + maxPageSize + ". User provided " + pageSize);
+		}
+		List<Client> clients = clientRepository.getClientsAfter(afterID, pageSize);
+		Integer nextAfter = clients.size() < pageSize ? null : clients.get(clients.size() - 1).getId();
+		return new ClientPageDTO(clients, nextAfter);
+	}
+	
+	public void streamAllClients(ClientStore.ClientConsumer consumer) throws couldNotConnectToDatabaseException, IOException {
+		clientRepository.streamAllClients(consumer);
+	}
+	
+	
+	
+	
 	public String addClient(PostClientDTO client) throws ClientAddException, EmptyParameterException {
 		try {
 			if(client.getFirstName().isBlank() || client.getLastName().isBlank()) {
@@ -113,7 +167,70 @@ public class ClientService {
 		return "User could not be updated";
 	}
 	
-	public ClientRepository getRepo() {
+	//Updates every client in the list with one batch. Nothing is updated if any of them is missing a name or an ID
+	public List<Client> updateClients(List<Client> clients) throws EmptyParameterException, BadParameterException, SQLException, couldNotConnectToDatabaseException, ClientAlreadyExistsException, ClientNotFoundException {
+		if(clients == null || clients.isEmpty()) {
+			throw new EmptyParameterException("When trying to update Clients, no clients were given.");
+		}
+		if(clients.size() > MAX_BULK) {
+			throw new BadParameterException("At most " + MAX_BULK + " clients can be updated at once. User provided " + clients.size());
+		}
+		for(Client client : clients) {
+			if(client.getFirstName() == null || client.getLastName() == null || client.getFirstName().isBlank() || client.getLastName().isBlank()) {
+				throw new EmptyParameterException("When trying to update Clients, one or more of the parameters were left blank.");
+			}
+			if(client.getId() <= 0) {
+				throw new BadParameterException("Client id must be a positive int. User provided " + client.getId());
+			}
+		}
+		return clientRepository.updateClients(clients);
+	}
+	
+	//Streams a JSON array or newline delimited clients in chunks, clients with a blank name are counted as rejected
+	public ImportSummaryDTO importClients(InputStream body) throws BadParameterException, SQLException, couldNotConnectToDatabaseException, ClientAddException {
+		int chunkSize = IMPORT_CHUNK_SIZE;
+		long start = System.currentTimeMillis();
+		long imported = 0;
+		long rejected = 0;
+		int chunks = 0;
+		ArrayList<PostClientDTO> chunk = new ArrayList<PostClientDTO>(chunkSize);
+		try(JsonParser parser = mapper.getFactory().createParser(body)) {
+			JsonToken token = parser.nextToken();
+			boolean array = token == JsonToken.START_ARRAY;
+			if(array) {
+				token = parser.nextToken();
+			}
+			while(token == JsonToken.START_OBJECT) {
+				PostClientDTO client = mapper.readValue(parser, PostClientDTO.class);
+				if(client.getFirstName() == null || client.getLastName() == null || client.getFirstName().isBlank() || client.getLastName().isBlank()) {
+					rejected++;
+				} else {
+					chunk.add(client);
+				}
+				if(chunk.size() == chunkSize) {
+					imported += clientRepository.newClients(chunk).size();
+					chunks++;
+					chunk.clear();
+					logger.info("Imported " + imported + " clients so far");
+				}
+				token = parser.nextToken();
+			}
+			if(array ? token != JsonToken.END_ARRAY : token != null) {
+				throw new BadParameterException("Clients to import must be a JSON array of clients or one client per line. Stopped at " + token + " after " + imported + " clients were imported");
+			}
+		} catch (IOException e) {
+			throw new BadParameterException("The clients to import could not be read after " + imported + " clients were imported. " + e.getMessage());
+		}
+		if(!chunk.isEmpty()) {
+			imported += clientRepository.newClients(chunk).size();
+			chunks++;
+		}
+		ImportSummaryDTO summary = new ImportSummaryDTO(imported, rejected, chunks, System.currentTimeMillis() - start);
+		logger.info("Finished importing clients " + summary);
+		return summary;
+	}
+	
+	public ClientStore getRepo() {
 		return clientRepository;
 	}
 	
@@ -0,0 +1,39 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.revature.exceptions.BadParameterException;
+
+//The last account ID on a page and its client, base64 encoded so callers treat it as a token
+public class AccountCursor {
+
+	private static final String VERSION = "a1";
+
+	public static String encode(int clientID, int lastAccountID) {
+		String raw = VERSION + ":" + clientID + ":" + lastAccountID;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	//Gives back the account ID to start after, and rejects cursors that are garbled or were made for another client
+	public static int decode(String cursor, int clientID) throws BadParameterException {
+		String[] parts;
+		try {
+			parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+		} catch (IllegalArgumentException e) {
+			throw new BadParameterException("The cursor " + cursor + " is not valid");
+		}
+		if(parts.length != 3 || !parts[0].equals(VERSION)) {
+			throw new BadParameterException("The cursor " + cursor + " is not valid");
+		}
+		try {
+			if(Integer.parseInt(parts[1]) != clientID) {
+				throw new BadParameterException("The cursor " + cursor + " belongs to a different client");
+			}
+			return Integer.parseInt(parts[2]);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException("The cursor " + cursor + " is not valid");
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.revature.util;
+
+public class ConfigUtil {
+
+	//Environment variables first (like db_url), then -D system properties
+	public static String getString(String name, String defaultValue) {
+		String value = System.getenv(name);
+		if(value == null || value.isBlank()) {
+			value = System.getProperty(name);
+		}
+		if(value == null || value.isBlank()) {
+			return defaultValue;
+		}
+		return value.trim();
+	}
+
+	public static int getInt(String name, int defaultValue) {
+		String value = getString(name, null);
+		if(value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Setting " + name + " must be an int value. Found " + value);
+		}
+	}
+
+	public static long getLong(String name, long defaultValue) {
+		String value = getString(name, null);
+		if(value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Setting " + name + " must be a long value. Found " + value);
+		}
+	}
+
+	public static boolean getBoolean(String name, boolean defaultValue) {
+		String value = getString(name, null);
+		if(value == null) {
+			return defaultValue;
+		}
+		return Boolean.parseBoolean(value);
+	}
+
+}
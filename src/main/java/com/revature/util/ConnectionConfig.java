@@ -0,0 +1,142 @@
+package com.revature.util;
+
+//Everything needed to connect to MariaDB, read once at startup so nothing on the request path touches System.getenv
+public final class ConnectionConfig {
+
+	private final String url;
+	private final String username;
+	private final String password;
+	private final int maxPoolSize;
+	private final int minIdle;
+	private final long idleTimeoutMs;
+	private final long maxLifetimeMs;
+	private final long connectionTimeoutMs;
+	private final long validationTimeoutMs;
+	private final long leakDetectionMs;
+	private final boolean serverPrepare;
+	private final int statementCacheSize;
+	private final int statementCacheSqlLimit;
+
+	public ConnectionConfig(String url, String username, String password, int maxPoolSize, int minIdle,
+			long idleTimeoutMs, long maxLifetimeMs, long connectionTimeoutMs, long validationTimeoutMs,
+			long leakDetectionMs) {
+		this(url, username, password, maxPoolSize, minIdle, idleTimeoutMs, maxLifetimeMs, connectionTimeoutMs,
+				validationTimeoutMs, leakDetectionMs, true, 250, 2048);
+	}
+
+	public ConnectionConfig(String url, String username, String password, int maxPoolSize, int minIdle,
+			long idleTimeoutMs, long maxLifetimeMs, long connectionTimeoutMs, long validationTimeoutMs,
+			long leakDetectionMs, boolean serverPrepare, int statementCacheSize, int statementCacheSqlLimit) {
+		if(url == null || url.isBlank()) {
+			throw new IllegalArgumentException("db_url must be set to connect to the database");
+		}
+		if(!url.startsWith("jdbc:mariadb:") && !url.startsWith("jdbc:mysql:")) {
+			throw new IllegalArgumentException("db_url must be a MariaDB JDBC url. Found " + url);
+		}
+		if(username == null || username.isBlank()) {
+			throw new IllegalArgumentException("db_username must be set to connect to the database");
+		}
+		if(maxPoolSize < 1) {
+			throw new IllegalArgumentException("db_pool_max_size must be at least 1. Found " + maxPoolSize);
+		}
+		if(minIdle < 0 || minIdle > maxPoolSize) {
+			throw new IllegalArgumentException("db_pool_min_idle must be between 0 and db_pool_max_size. Found " + minIdle);
+		}
+		if(statementCacheSize < 0) {
+			throw new IllegalArgumentException("db_statement_cache_size can't be negative. Found " + statementCacheSize);
+		}
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.maxPoolSize = maxPoolSize;
+		this.minIdle = minIdle;
+		this.idleTimeoutMs = idleTimeoutMs;
+		this.maxLifetimeMs = maxLifetimeMs;
+		this.connectionTimeoutMs = connectionTimeoutMs;
+		this.validationTimeoutMs = validationTimeoutMs;
+		this.leakDetectionMs = leakDetectionMs;
+		this.serverPrepare = serverPrepare;
+		this.statementCacheSize = statementCacheSize;
+		this.statementCacheSqlLimit = statementCacheSqlLimit;
+	}
+
+	public static ConnectionConfig fromEnvironment() {
+		return new ConnectionConfig(
+				ConfigUtil.getString("db_url", null),
+				ConfigUtil.getString("db_username", null),
+				ConfigUtil.getString("db_password", ""),
+				ConfigUtil.getInt("db_pool_max_size", 10),
+				ConfigUtil.getInt("db_pool_min_idle", 2),
+				ConfigUtil.getLong("db_pool_idle_timeout_ms", 600000),
+				ConfigUtil.getLong("db_pool_max_lifetime_ms", 1800000),
+				ConfigUtil.getLong("db_pool_connection_timeout_ms", 30000),
+				ConfigUtil.getLong("db_pool_validation_timeout_ms", 5000),
+				ConfigUtil.getLong("db_pool_leak_detection_ms", 60000),
+				ConfigUtil.getBoolean("db_server_prepare", true),
+				ConfigUtil.getInt("db_statement_cache_size", 250),
+				ConfigUtil.getInt("db_statement_cache_sql_limit", 2048));
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	public long getIdleTimeoutMs() {
+		return idleTimeoutMs;
+	}
+
+	public long getMaxLifetimeMs() {
+		return maxLifetimeMs;
+	}
+
+	public long getConnectionTimeoutMs() {
+		return connectionTimeoutMs;
+	}
+
+	public long getValidationTimeoutMs() {
+		return validationTimeoutMs;
+	}
+
+	public long getLeakDetectionMs() {
+		return leakDetectionMs;
+	}
+
+	public boolean isServerPrepare() {
+		return serverPrepare;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	public int getStatementCacheSqlLimit() {
+		return statementCacheSqlLimit;
+	}
+
+	@Override
+	public String toString() {
+		//leaves the password out so the config can be logged
+		return "ConnectionConfig [url=" + url + ", username=" + username + ", maxPoolSize=" + maxPoolSize + ", minIdle="
+				+ minIdle + ", idleTimeoutMs=" + idleTimeoutMs + ", maxLifetimeMs=" + maxLifetimeMs
+				+ ", connectionTimeoutMs=" + connectionTimeoutMs + ", validationTimeoutMs=" + validationTimeoutMs
+				+ ", leakDetectionMs=" + leakDetectionMs + ", serverPrepare=" + serverPrepare + ", statementCacheSize="
+				+ statementCacheSize + ", statementCacheSqlLimit=" + statementCacheSqlLimit + "]";
+	}
+
+}
@@ -1,31 +1,167 @@
 package com.revature.util;
 
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.sql.Connection;
 
 import org.mariadb.jdbc.Driver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.revature.controller.ClientController;
+import com.revature.dto.PoolStatsDTO;
+import com.revature.dto.StatementStatsDTO;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 public class ConnectionUtil {
 
 	private static Logger logger = LoggerFactory.getLogger(ConnectionUtil.class);
-	
+
+	private static final AtomicBoolean driverRegistered = new AtomicBoolean(false);
+	private static volatile ConnectionConfig config;
+	private static volatile HikariDataSource dataSource;
+
+	//Pooled, so closing a connection just gives it back
 	public static Connection getConnection() throws SQLException {
-		
-		Driver mariaDBDriver = new Driver();
-		DriverManager.registerDriver(mariaDBDriver);
-		
-		String username = System.getenv("db_username");
-		String password = System.getenv("db_password");
-		String connectionString = System.getenv("db_url");
-		
-		return DriverManager.getConnection(connectionString, username, password);
-	}
-	
-
-	
+		return getDataSource().getConnection();
+	}
+
+	//Called once from main, but getDataSource will bootstrap from the environment on its own if it wasn't
+	public static synchronized void bootstrap(ConnectionConfig connectionConfig) {
+		if(config != null) {
+			throw new IllegalStateException("ConnectionUtil was already bootstrapped with " + config);
+		}
+		registerDriver();
+		config = connectionConfig;
+		logger.info("Bootstrapped database connections with " + connectionConfig);
+	}
+
+	public static ConnectionConfig getConfig() {
+		return config;
+	}
+
+	//The driver registers itself when it loads, this only adds it back, once, if something deregistered it
+	public static void registerDriver() {
+		if(driverRegistered.get()) {
+			return;
+		}
+		synchronized (driverRegistered) {
+			if(driverRegistered.get()) {
+				return;
+			}
+			try {
+				Enumeration<java.sql.Driver> drivers = DriverManager.getDrivers();
+				boolean found = false;
+				while(drivers.hasMoreElements()) {
+					if(drivers.nextElement() instanceof Driver) {
+						found = true;
+					}
+				}
+				if(!found) {
+					DriverManager.registerDriver(new Driver());
+				}
+				driverRegistered.set(true);
+			} catch (SQLException e) {
+				throw new IllegalStateException("The MariaDB driver could not be registered", e);
+			}
+		}
+	}
+
+	public static HikariDataSource getDataSource() {
+		HikariDataSource ds = dataSource;
+		if(ds == null) {
+			synchronized (ConnectionUtil.class) {
+				ds = dataSource;
+				if(ds == null) {
+					if(config == null) {
+						bootstrap(ConnectionConfig.fromEnvironment());
+					}
+					ds = new HikariDataSource(buildPoolConfig(config));
+					dataSource = ds;
+					logger.info("Created connection pool " + ds.getPoolName() + " with a max size of " + ds.getMaximumPoolSize());
+				}
+			}
+		}
+		return ds;
+	}
+
+	static HikariConfig buildPoolConfig(ConnectionConfig connectionConfig) {
+		HikariConfig poolConfig = new HikariConfig();
+		poolConfig.setPoolName("project0-pool");
+		poolConfig.setJdbcUrl(connectionConfig.getUrl());
+		poolConfig.setUsername(connectionConfig.getUsername());
+		poolConfig.setPassword(connectionConfig.getPassword());
+		//bounded pool, the minimum idle connections are kept warm and anything over that is evicted after the idle timeout
+		poolConfig.setMaximumPoolSize(connectionConfig.getMaxPoolSize());
+		poolConfig.setMinimumIdle(connectionConfig.getMinIdle());
+		poolConfig.setIdleTimeout(connectionConfig.getIdleTimeoutMs());
+		//connections are retired before MariaDB's wait_timeout can kill them on us
+		poolConfig.setMaxLifetime(connectionConfig.getMaxLifetimeMs());
+		poolConfig.setConnectionTimeout(connectionConfig.getConnectionTimeoutMs());
+		//connections are checked with isValid() when borrowed, this is how long that check is allowed to take
+		poolConfig.setValidationTimeout(connectionConfig.getValidationTimeoutMs());
+		//0 turns leak detection off, otherwise a warning with the borrowing stack trace is logged when a connection is held too long
+		poolConfig.setLeakDetectionThreshold(connectionConfig.getLeakDetectionMs());
+		poolConfig.setRegisterMbeans(true);
+		//server side prepared statements in a per-connection LRU keyed by SQL, so a query is only parsed once per connection
+		poolConfig.addDataSourceProperty("useServerPrepStmts", String.valueOf(connectionConfig.isServerPrepare()));
+		poolConfig.addDataSourceProperty("cachePrepStmts", String.valueOf(connectionConfig.getStatementCacheSize() > 0));
+		poolConfig.addDataSourceProperty("prepStmtCacheSize", String.valueOf(connectionConfig.getStatementCacheSize()));
+		poolConfig.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(connectionConfig.getStatementCacheSqlLimit()));
+		//No rewriteBatchedStatements, Connector/J 2.7 turns useServerPrepStmts off with it. Batches are still pipelined by useBatchMultiSend
+		return poolConfig;
+	}
+
+	public static PoolStatsDTO getPoolStats() {
+		HikariDataSource ds = getDataSource();
+		HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+		if(pool == null) {
+			return new PoolStatsDTO(ds.getPoolName(), 0, 0, 0, 0, ds.getMaximumPoolSize(), ds.getMinimumIdle());
+		}
+		return new PoolStatsDTO(ds.getPoolName(), pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+				pool.getThreadsAwaitingConnection(), ds.getMaximumPoolSize(), ds.getMinimumIdle());
+	}
+
+	//Server wide counts, with the cache working executes should climb much faster than prepares
+	public static StatementStatsDTO getStatementStats() throws SQLException {
+		long prepares = 0;
+		long executes = 0;
+		long closes = 0;
+		long prepared = 0;
+		try(Connection connection = getConnection()) {
+			ResultSet results = connection.createStatement().executeQuery("SHOW GLOBAL STATUS WHERE Variable_name IN ('Com_stmt_prepare', 'Com_stmt_execute', 'Com_stmt_close', 'Prepared_stmt_count')");
+			while(results.next()) {
+				long value = results.getLong(2);
+				switch(results.getString(1)) {
+				case "Com_stmt_prepare":
+					prepares = value;
+					break;
+				case "Com_stmt_execute":
+					executes = value;
+					break;
+				case "Com_stmt_close":
+					closes = value;
+					break;
+				default:
+					prepared = value;
+				}
+			}
+		}
+		return new StatementStatsDTO(config.isServerPrepare(), config.getStatementCacheSize(), prepares, executes, closes, prepared);
+	}
+
+	public static void closePool() {
+		synchronized (ConnectionUtil.class) {
+			if(dataSource != null) {
+				dataSource.close();
+				dataSource = null;
+				logger.info("Closed the connection pool");
+			}
+		}
+	}
+
 }
@@ -0,0 +1,178 @@
+package com.revature.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dto.ExecutorStatsDTO;
+import com.revature.exceptions.ServerBusyException;
+
+import io.javalin.http.Context;
+import io.javalin.plugin.json.JavalinJson;
+
+//Runs the blocking store calls off Jetty's request threads, answering 503 once the queue or the virtual thread limiter is full
+public class DbExecutor {
+
+	private static Logger logger = LoggerFactory.getLogger(DbExecutor.class);
+
+	//A store call, which like everything under the controllers throws checked exceptions
+	@FunctionalInterface
+	public interface DbCall<T> {
+		T call() throws Exception;
+	}
+
+	private static volatile ThreadPoolExecutor executor;
+	private static final AtomicLong rejected = new AtomicLong();
+	private static final boolean ASYNC = ConfigUtil.getBoolean("async_handlers", true);
+
+	private static volatile Semaphore limiter;
+	private static volatile int limiterPermits;
+	private static volatile long limiterWaitMs;
+	private static final AtomicLong limitedCalls = new AtomicLong();
+
+	private static ThreadPoolExecutor getExecutor() {
+		if(executor == null) {
+			synchronized (DbExecutor.class) {
+				if(executor == null) {
+					start(ConfigUtil.getInt("db_executor_threads", defaultConcurrency()), ConfigUtil.getInt("db_executor_queue_depth", 64));
+				}
+			}
+		}
+		return executor;
+	}
+
+	private static Semaphore getLimiter() {
+		if(limiter == null) {
+			synchronized (DbExecutor.class) {
+				if(limiter == null) {
+					startLimiter(ConfigUtil.getInt("db_limiter_permits", defaultConcurrency()), ConfigUtil.getLong("db_limiter_wait_ms", 1000));
+				}
+			}
+		}
+		return limiter;
+	}
+
+	//the in-memory engines have no pool, so they get one per core
+	private static int defaultConcurrency() {
+		ConnectionConfig config = ConnectionUtil.getConfig();
+		return config != null ? config.getMaxPoolSize() : Runtime.getRuntime().availableProcessors();
+	}
+
+	//Replaces the limiter, only the tests need to call this directly
+	static synchronized void startLimiter(int permits, long waitMs) {
+		if(permits < 1 || waitMs < 0) {
+			throw new IllegalArgumentException("db_limiter_permits must be at least 1 and db_limiter_wait_ms can't be negative. Found " + permits + " and " + waitMs);
+		}
+		limiterPermits = permits;
+		limiterWaitMs = waitMs;
+		//fair, so a call that has been waiting isn't passed over by ones that just arrived
+		limiter = new Semaphore(permits, true);
+		logger.info("Limiting store calls to " + permits + " at a time, waiting up to " + waitMs + "ms for a turn");
+	}
+
+	//Replaces the executor, only the tests need to call this directly
+	static synchronized void start(int threads, int queueDepth) {
+		if(threads < 1 || queueDepth < 1) {
+			throw new IllegalArgumentException("db_executor_threads and db_executor_queue_depth must be at least 1. Found " + threads + " and " + queueDepth);
+		}
+		shutdown();
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueDepth), runnable -> {
+			Thread thread = new Thread(runnable, "db-executor-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		logger.info("Started the database executor with " + threads + " threads and room for " + queueDepth + " waiting calls");
+	}
+
+	public static boolean isAsync() {
+		return ASYNC;
+	}
+
+	//Throws ServerBusyException right away when every thread is busy and the queue is full
+	public static <T> CompletableFuture<T> supply(DbCall<T> call) throws ServerBusyException {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		try {
+			getExecutor().execute(() -> {
+				try {
+					future.complete(call.call());
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.incrementAndGet();
+			throw new ServerBusyException("The server is too busy to take this request right now, try again shortly");
+		}
+		return future;
+	}
+
+	//Runs the call on this thread once a permit frees up, ServerBusyException after db_limiter_wait_ms
+	public static <T> T limited(DbCall<T> call) throws Exception {
+		Semaphore permits = getLimiter();
+		if(!permits.tryAcquire(limiterWaitMs, TimeUnit.MILLISECONDS)) {
+			rejected.incrementAndGet();
+			throw new ServerBusyException("The server is too busy to take this request right now, try again shortly");
+		}
+		try {
+			return call.call();
+		} finally {
+			permits.release();
+			limitedCalls.incrementAndGet();
+		}
+	}
+
+	//Only the call runs on the executor, so read the Context and set the status before getting here
+	public static void json(Context ctx, DbCall<?> call) throws Exception {
+		if(VirtualThreads.isEnabled()) {
+			ctx.json(limited(call));
+			return;
+		}
+		if(!isAsync()) {
+			ctx.json(call.call());
+			return;
+		}
+		ctx.contentType("application/json");
+		ctx.result(supply(call).thenApply(JavalinJson::toJson));
+	}
+
+	public static ExecutorStatsDTO getStats() {
+		if(VirtualThreads.isEnabled()) {
+			Semaphore permits = getLimiter();
+			return new ExecutorStatsDTO("virtual", limiterPermits, limiterPermits - permits.availablePermits(), permits.getQueueLength(),
+					0, limitedCalls.get(), rejected.get());
+		}
+		ThreadPoolExecutor pool = getExecutor();
+		return new ExecutorStatsDTO("platform", pool.getMaximumPoolSize(), pool.getActiveCount(), pool.getQueue().size(),
+				pool.getQueue().size() + pool.getQueue().remainingCapacity(), pool.getCompletedTaskCount(), rejected.get());
+	}
+
+	//Lets the calls already running or waiting finish, for a few seconds at most
+	public static void shutdown() {
+		ThreadPoolExecutor pool;
+		synchronized (DbExecutor.class) {
+			pool = executor;
+			executor = null;
+		}
+		if(pool == null) {
+			return;
+		}
+		pool.shutdown();
+		try {
+			if(!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+				logger.warn("The database executor still had calls running when it was shut down");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.revature.util;
+
+//Open addressing int to int hash map, get gives back the constructor's missing value. Not thread safe
+public class IntIntHashMap {
+
+	private final int missingValue;
+	private int[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int size;
+	private int resizeAt;
+
+	public IntIntHashMap(int expectedSize, int missingValue) {
+		this.missingValue = missingValue;
+		int capacity = 16;
+		while(capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		resizeAt = capacity * 3 / 4;
+	}
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int slotOf(int key) {
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while(used[slot]) {
+			if(keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	public int get(int key) {
+		int slot = slotOf(key);
+		return slot == -1 ? missingValue : values[slot];
+	}
+
+	public boolean containsKey(int key) {
+		return slotOf(key) != -1;
+	}
+
+	public int put(int key, int value) {
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while(used[slot]) {
+			if(keys[slot] == key) {
+				int old = values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return missingValue;
+	}
+
+	public int remove(int key) {
+		int slot = slotOf(key);
+		if(slot == -1) {
+			return missingValue;
+		}
+		int old = values[slot];
+		//backward shift deletion, same as IntObjectHashMap
+		int mask = keys.length - 1;
+		int hole = slot;
+		while(true) {
+			slot = (slot + 1) & mask;
+			if(!used[slot]) {
+				break;
+			}
+			int home = mix(keys[slot]) & mask;
+			if(((slot - home) & mask) >= ((slot - hole) & mask)) {
+				keys[hole] = keys[slot];
+				values[hole] = values[slot];
+				hole = slot;
+			}
+		}
+		used[hole] = false;
+		size--;
+		return old;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		size = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldUsed[i]) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	//How many slots a lookup of a key that's there looks at on average, about 1.5 at most when the keys are spread well
+	public double averageProbeLength() {
+		if(size == 0) {
+			return 0;
+		}
+		int mask = keys.length - 1;
+		long probes = 0;
+		for(int slot = 0; slot < keys.length; slot++) {
+			if(used[slot]) {
+				probes += ((slot - (mix(keys[slot]) & mask)) & mask) + 1;
+			}
+		}
+		return (double) probes / size;
+	}
+
+	public void clear() {
+		allocate(keys.length);
+		size = 0;
+	}
+
+	//roughly what the arrays take up on the heap
+	public long memoryBytes() {
+		return keys.length * 9L;
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.revature.util;
+
+import java.util.function.Consumer;
+
+//Open addressing hash map with int keys so lookups don't box. Not thread safe
+public class IntObjectHashMap<V> {
+
+	private int[] keys;
+	private Object[] values;
+	private boolean[] used;
+	private int size;
+	private int resizeAt;
+
+	public IntObjectHashMap() {
+		this(16);
+	}
+
+	public IntObjectHashMap(int expectedSize) {
+		int capacity = 16;
+		while(capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		used = new boolean[capacity];
+		resizeAt = capacity * 3 / 4;
+	}
+
+	//spreads sequential IDs around the table so they don't all land next to each other
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int slotOf(int key) {
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while(used[slot]) {
+			if(keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int slot = slotOf(key);
+		return slot == -1 ? null : (V) values[slot];
+	}
+
+	public boolean containsKey(int key) {
+		return slotOf(key) != -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while(used[slot]) {
+			if(keys[slot] == key) {
+				V old = (V) values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int slot = slotOf(key);
+		if(slot == -1) {
+			return null;
+		}
+		V old = (V) values[slot];
+		shiftBack(slot);
+		size--;
+		return old;
+	}
+
+	//Backward shift deletion, moves later entries of the probe run into the hole so no tombstones are needed
+	private void shiftBack(int hole) {
+		int mask = keys.length - 1;
+		int slot = hole;
+		while(true) {
+			slot = (slot + 1) & mask;
+			if(!used[slot]) {
+				break;
+			}
+			int home = mix(keys[slot]) & mask;
+			//the entry can move into the hole only if the hole sits between its home slot and where it is now
+			if(((slot - home) & mask) >= ((slot - hole) & mask)) {
+				keys[hole] = keys[slot];
+				values[hole] = values[slot];
+				hole = slot;
+			}
+		}
+		used[hole] = false;
+		values[hole] = null;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		size = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldUsed[i]) {
+				put(oldKeys[i], castValue(oldValues[i]));
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private V castValue(Object value) {
+		return (V) value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	//How many slots a lookup of a key that's there looks at on average, about 1.5 at most when the keys are spread well
+	public double averageProbeLength() {
+		if(size == 0) {
+			return 0;
+		}
+		int mask = keys.length - 1;
+		long probes = 0;
+		for(int slot = 0; slot < keys.length; slot++) {
+			if(used[slot]) {
+				probes += ((slot - (mix(keys[slot]) & mask)) & mask) + 1;
+			}
+		}
+		return (double) probes / size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		allocate(keys.length);
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void forEachValue(Consumer<V> action) {
+		for(int i = 0; i < keys.length; i++) {
+			if(used[i]) {
+				action.accept((V) values[i]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.revature.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+//Virtual threads through reflection, since the project still compiles for Java 8
+public class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	//Thread.ofVirtual is already there as a preview on Java 19 and 20, so the version is checked as well
+	private static final boolean SUPPORTED = featureVersion() >= 21 && hasOfVirtual();
+	//virtual_threads=true only takes effect on a JVM that has them, older ones log it and keep the platform threads
+	private static final boolean ENABLED = ConfigUtil.getBoolean("virtual_threads", false) && SUPPORTED;
+
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	//"1.8" up to Java 8, "9", "11", "21" after it
+	static int featureVersion() {
+		String version = System.getProperty("java.specification.version", "1.8");
+		if(version.startsWith("1.")) {
+			version = version.substring(2);
+		}
+		try {
+			return Integer.parseInt(version);
+		} catch (NumberFormatException e) {
+			return 8;
+		}
+	}
+
+	private static boolean hasOfVirtual() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	//Same as Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())
+	public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		if(!isSupported()) {
+			throw new UnsupportedOperationException("Virtual threads need Java 21 or newer, this is Java " + System.getProperty("java.version"));
+		}
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) newExecutor.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Virtual threads are there but couldn't be set up", e);
+		}
+	}
+
+}
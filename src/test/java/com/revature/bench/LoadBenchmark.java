@@ -0,0 +1,93 @@
+package com.revature.bench;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.revature.util.ConfigUtil;
+import com.revature.util.VirtualThreads;
+
+//Not a test, throws bench_concurrency requests at a running server (MariaDB engine, with and without virtual_threads) and reports latencies and 503s:
+//  java -cp target/classes:target/test-classes:$(cat cp.txt) -Dbench_concurrency=2000 com.revature.bench.LoadBenchmark
+public class LoadBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		String baseURL = ConfigUtil.getString("bench_url", "http://localhost:7000");
+		String path = ConfigUtil.getString("bench_path", "/clients/1/accounts");
+		int concurrency = ConfigUtil.getInt("bench_concurrency", 1000);
+		int seconds = ConfigUtil.getInt("bench_seconds", 10);
+		URL url = new URL(baseURL + path);
+		//HttpURLConnection only keeps 5 connections alive per host otherwise
+		System.setProperty("http.maxConnections", String.valueOf(concurrency));
+
+		ExecutorService workers = VirtualThreads.isSupported() ? VirtualThreads.newThreadPerTaskExecutor("load-bench-") : Executors.newFixedThreadPool(concurrency);
+		LongAdder ok = new LongAdder();
+		LongAdder busy = new LongAdder();
+		LongAdder failed = new LongAdder();
+		long deadline = System.nanoTime() + seconds * 1000000000L;
+		List<Future<long[]>> results = new ArrayList<Future<long[]>>(concurrency);
+		for(int w = 0; w < concurrency; w++) {
+			results.add(workers.submit(() -> {
+				long[] latencies = new long[1024];
+				int count = 0;
+				byte[] buffer = new byte[8192];
+				while(System.nanoTime() < deadline) {
+					long start = System.nanoTime();
+					try {
+						HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+						int status = connection.getResponseCode();
+						//the body has to be read to the end for the connection to be reused
+						try(InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+							while(body != null && body.read(buffer) != -1) {
+							}
+						}
+						if(status == 503) {
+							busy.increment();
+						} else if(status < 400) {
+							ok.increment();
+						} else {
+							failed.increment();
+						}
+					} catch (Exception e) {
+						failed.increment();
+					}
+					if(count == latencies.length) {
+						latencies = Arrays.copyOf(latencies, count * 2);
+					}
+					latencies[count++] = System.nanoTime() - start;
+				}
+				return Arrays.copyOf(latencies, count);
+			}));
+		}
+
+		long[] all = new long[0];
+		for(Future<long[]> result : results) {
+			long[] latencies = result.get();
+			int previous = all.length;
+			all = Arrays.copyOf(all, previous + latencies.length);
+			System.arraycopy(latencies, 0, all, previous, latencies.length);
+		}
+		workers.shutdown();
+		Arrays.sort(all);
+
+		System.out.println("url=" + url + " concurrency=" + concurrency + " seconds=" + seconds + " clientThreads=" + (VirtualThreads.isSupported() ? "virtual" : "platform"));
+		System.out.println("requests=" + all.length + " (" + all.length / seconds + "/s) ok=" + ok.sum() + " busy(503)=" + busy.sum() + " failed=" + failed.sum());
+		System.out.println("p50=" + percentile(all, 50) + "ms p99=" + percentile(all, 99) + "ms max=" + percentile(all, 100) + "ms");
+	}
+
+	private static double percentile(long[] sorted, int percent) {
+		if(sorted.length == 0) {
+			return 0;
+		}
+		int index = Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * percent / 100.0) - 1);
+		return sorted[Math.max(index, 0)] / 1000000.0;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.revature.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.revature.dao.AccountStore;
+import com.revature.dao.ClientStore;
+import com.revature.dao.SchemaManager;
+import com.revature.dao.StoreFactory;
+import com.revature.dao.memory.TransferEngine;
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.ConfigUtil;
+
+//Not a test, shows how transfers hold up when bench_hot_accounts accounts take all the load, against whatever storage_engine is set:
+//  java -cp target/classes:target/test-classes:$(cat cp.txt) -Dstorage_engine=memory com.revature.bench.TransferBenchmark
+public class TransferBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int threads = ConfigUtil.getInt("bench_threads", 16);
+		int seconds = ConfigUtil.getInt("bench_seconds", 10);
+		int hotAccounts = Math.max(ConfigUtil.getInt("bench_hot_accounts", 2), 2);
+		int startingAmount = 1000000;
+
+		if(StoreFactory.getEngine().equals(StoreFactory.MARIADB)) {
+			SchemaManager.prepare(false);
+		}
+		ClientStore clientStore = StoreFactory.createClientStore();
+		AccountStore createdStore = StoreFactory.createAccountStore(clientStore);
+		AccountStore accountStore = ConfigUtil.getBoolean("bench_transfer_engine", false) && !(createdStore instanceof TransferEngine)
+				? new TransferEngine(createdStore, ConfigUtil.getInt("engine_stripes", 1024), ConfigUtil.getLong("engine_flush_interval_ms", 1000), ConfigUtil.getInt("engine_max_accounts", 1000000))
+				: createdStore;
+		Client client = clientStore.newClient(new PostClientDTO("Transfer", "Benchmark"));
+		int[] accountIDs = new int[hotAccounts];
+		for(int i = 0; i < hotAccounts; i++) {
+			accountIDs[i] = accountStore.makeAccountForClient(startingAmount, client.getId()).getAccountID();
+		}
+
+		LongAdder transfers = new LongAdder();
+		LongAdder refused = new LongAdder();
+		LongAdder failed = new LongAdder();
+		long deadline = System.nanoTime() + seconds * 1000000000L;
+		List<Thread> workers = new ArrayList<Thread>(threads);
+		for(int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while(System.nanoTime() < deadline) {
+					int from = random.nextInt(hotAccounts);
+					int to = (from + 1 + random.nextInt(hotAccounts - 1)) % hotAccounts;
+					try {
+						accountStore.transferBetweenAccounts(client.getId(), accountIDs[from], client.getId(), accountIDs[to], 1 + random.nextInt(10));
+						transfers.increment();
+					} catch (InsufficientFundsException e) {
+						refused.increment();
+					} catch (Exception e) {
+						failed.increment();
+					}
+				}
+			}, "transfer-bench-" + t);
+			workers.add(worker);
+			worker.start();
+		}
+		for(Thread worker : workers) {
+			worker.join();
+		}
+
+		//every transfer moves money between the hot accounts, so their total can't have changed
+		long total = 0;
+		for(Account account : accountStore.getAccountsViaClientID(client.getId())) {
+			total += account.getAmount();
+		}
+		System.out.println("engine=" + StoreFactory.getEngine() + (accountStore instanceof TransferEngine ? "+transfer engine" : "") + " threads=" + threads + " hotAccounts=" + hotAccounts + " seconds=" + seconds);
+		System.out.println("transfers=" + transfers.sum() + " (" + transfers.sum() / seconds + "/s) refused=" + refused.sum() + " failed=" + failed.sum());
+		System.out.println("total " + (total == (long) startingAmount * hotAccounts ? "conserved" : "CHANGED to " + total));
+		if(accountStore instanceof TransferEngine) {
+			((TransferEngine) accountStore).close();
+		}
+		StoreFactory.closeStores();
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.revature.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.dto.CacheStatsDTO;
+import com.revature.model.Account;
+
+public class AccountCacheTest {
+
+	private AtomicLong now;
+	private AccountCache accountCache;
+
+	@Before
+	public void beforeTest() {
+		now = new AtomicLong(0);
+		accountCache = new AccountCache(2, 1000, now::get);
+	}
+
+	@Test
+	public void test_get_HitAfterPut() {
+		accountCache.put(new Account(1, 1, 500), accountCache.version(1));
+		assertEquals(new Account(1, 1, 500), accountCache.get(1, 1));
+		CacheStatsDTO stats = accountCache.getStats();
+		assertEquals(1, stats.getHits());
+		assertEquals(0, stats.getMisses());
+	}
+
+	@Test
+	public void test_get_WrongClientMisses() {
+		accountCache.put(new Account(1, 1, 500), accountCache.version(1));
+		assertNull(accountCache.get(2, 1));
+		assertEquals(1, accountCache.getStats().getMisses());
+	}
+
+	@Test
+	public void test_get_ReturnsCopy() {
+		accountCache.put(new Account(1, 1, 500), accountCache.version(1));
+		accountCache.get(1, 1).setAmount(9000);
+		assertEquals(500, accountCache.get(1, 1).getAmount());
+	}
+
+	@Test
+	public void test_put_EvictsLeastRecentlyUsed() {
+		accountCache.put(new Account(1, 1, 500), accountCache.version(1));
+		accountCache.put(new Account(2, 1, 600), accountCache.version(1));
+		accountCache.get(1, 1);
+		accountCache.put(new Account(3, 1, 700), accountCache.version(1));
+		assertNull(accountCache.get(1, 2));
+		assertEquals(new Account(1, 1, 500), accountCache.get(1, 1));
+		assertEquals(1, accountCache.getStats().getEvictions());
+	}
+
+	@Test
+	public void test_get_ExpiredAfterTtl() {
+		accountCache.put(new Account(1, 1, 500), accountCache.version(1));
+		now.addAndGet(1000 * 1000000L);
+		assertNull(accountCache.get(1, 1));
+		assertEquals(1, accountCache.getStats().getExpirations());
+	}
+
+	@Test
+	public void test_invalidate_RemovesAccount() {
+		accountCache.put(new Account(1, 1, 500), accountCache.version(1));
+		accountCache.invalidate(1, 1);
+		assertNull(accountCache.get(1, 1));
+	}
+
+	@Test
+	public void test_put_NotFoundAccountNotCached() {
+		accountCache.put(new Account(-1, -1, -1), accountCache.version(1));
+		assertEquals(0, accountCache.getStats().getSize());
+	}
+
+	@Test
+	public void test_put_LoadFromBeforeInvalidateIsDropped() {
+		long version = accountCache.version(1);
+		accountCache.invalidate(1, 1);
+		accountCache.put(new Account(1, 1, 500), version);
+		assertNull(accountCache.get(1, 1));
+		accountCache.put(new Account(1, 1, 900), accountCache.version(1));
+		assertEquals(new Account(1, 1, 900), accountCache.get(1, 1));
+	}
+
+}
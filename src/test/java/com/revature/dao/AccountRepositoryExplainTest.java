@@ -0,0 +1,59 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.util.ConfigUtil;
+import com.revature.util.ConnectionUtil;
+
+//Runs the account queries through EXPLAIN on a real MariaDB, so it's skipped unless db_url is set
+public class AccountRepositoryExplainTest {
+
+	@Before
+	public void beforeTest() throws Exception {
+		assumeTrue("db_url isn't set, skipping the EXPLAIN checks", ConfigUtil.getString("db_url", null) != null);
+		SchemaManager.prepare(false);
+	}
+
+	private void assertCoveredByIndex(String sql, String index, int... parameters) throws Exception {
+		try(Connection connection = ConnectionUtil.getConnection()) {
+			PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql);
+			for(int i = 0; i < parameters.length; i++) {
+				explain.setInt(i + 1, parameters[i]);
+			}
+			ResultSet results = explain.executeQuery();
+			assertTrue(results.next());
+			assertNotEquals("The query fell back to a table scan", "ALL", results.getString("type"));
+			assertEquals(index, results.getString("key"));
+			String extra = results.getString("Extra");
+			assertTrue("The query isn't covered by the index: " + extra, extra != null && extra.contains("Using index"));
+			assertFalse("The query sorts its rows: " + extra, extra.contains("Using filesort"));
+		}
+	}
+
+	@Test
+	public void test_explain_RangeQueryUsesIndex() throws Exception {
+		assertCoveredByIndex(AccountRepository.SELECT_BETWEEN, "accountClientAmountIdx", 1, 1000, 3000);
+	}
+
+	@Test
+	public void test_explain_ClientQueryUsesIndex() throws Exception {
+		assertCoveredByIndex(AccountRepository.SELECT_BY_CLIENT, "accountClientIDIdx", 1);
+	}
+
+	@Test
+	public void test_explain_PageQueryUsesIndex() throws Exception {
+		assertCoveredByIndex(AccountRepository.SELECT_PAGE, "accountClientIDIdx", 1, 0, 20);
+	}
+
+}
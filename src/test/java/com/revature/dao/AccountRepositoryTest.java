@@ -0,0 +1,89 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.Test;
+
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.model.Account;
+import com.revature.util.ConfigUtil;
+
+public class AccountRepositoryTest {
+
+	private PreparedStatement update;
+	private ResultSet row;
+	private Connection connection;
+
+	private void mockAdjust(int rowsChanged, int ownerID, int amount) throws Exception {
+		connection = mock(Connection.class);
+		update = mock(PreparedStatement.class);
+		PreparedStatement select = mock(PreparedStatement.class);
+		row = mock(ResultSet.class);
+		when(connection.prepareStatement(AccountRepository.ADJUST_AMOUNT)).thenReturn(update);
+		when(connection.prepareStatement(AccountRepository.SELECT_BY_ACCOUNT)).thenReturn(select);
+		when(update.executeUpdate()).thenReturn(rowsChanged);
+		when(select.executeQuery()).thenReturn(row);
+		when(row.next()).thenReturn(true);
+		when(row.getInt("clientID")).thenReturn(ownerID);
+		when(row.getInt("amount")).thenReturn(amount);
+	}
+
+	@Test
+	public void test_adjust_ReadsBackNewAmount() throws Exception {
+		mockAdjust(1, 1, -250);
+		AccountRepository repository = new AccountRepository(mock(ClientRepository.class));
+		assertEquals(new Account(7, 1, -250), repository.adjust(connection, 1, 7, 50));
+		verify(update).setInt(4, 50);
+		verify(update).setInt(5, 50);
+	}
+
+	@Test
+	public void test_adjust_ZeroIsReadNotAssumed() throws Exception {
+		mockAdjust(1, 1, 0);
+		AccountRepository repository = new AccountRepository(mock(ClientRepository.class));
+		assertEquals(new Account(7, 1, 0), repository.adjust(connection, 1, 7, -500));
+	}
+
+	@Test
+	public void test_adjust_NothingChangedIsInsufficientFunds() throws Exception {
+		mockAdjust(0, 1, 20);
+		AccountRepository repository = new AccountRepository(mock(ClientRepository.class));
+		try {
+			repository.adjust(connection, 1, 7, -50);
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+		}
+	}
+
+	//The rest go through a real MariaDB, so they're skipped unless db_url is set
+	@Test
+	public void test_adjustAmountVia2IDs_OnlyWithdrawalsAreFloored() throws Exception {
+		assumeTrue("db_url isn't set, skipping the database round trip", ConfigUtil.getString("db_url", null) != null);
+		SchemaManager.prepare(false);
+		ClientRepository clientRepository = new ClientRepository();
+		AccountRepository accountRepository = new AccountRepository(clientRepository);
+		int clientID = clientRepository.newClient(new PostClientDTO("Floor", "Check")).getId();
+		int accountID = accountRepository.makeAccountForClient(100, clientID).getAccountID();
+		accountRepository.updateAccountVia2IDs(clientID, accountID, -300);
+
+		assertEquals(new Account(accountID, clientID, -250), accountRepository.adjustAmountVia2IDs(clientID, accountID, 50));
+		assertEquals(new Account(accountID, clientID, 0), accountRepository.adjustAmountVia2IDs(clientID, accountID, 250));
+		try {
+			accountRepository.adjustAmountVia2IDs(clientID, accountID, -1);
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+		}
+		assertEquals(new Account(accountID, clientID, 0), accountRepository.getAccountVia2IDs(clientID, accountID));
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ClientRepositoryTest {
+
+	@Test
+	public void test_inListSize_SmallestThatFits() {
+		assertEquals(1, ClientRepository.IN_LIST_SIZES[ClientRepository.inListSize(1)]);
+		assertEquals(16, ClientRepository.IN_LIST_SIZES[ClientRepository.inListSize(2)]);
+		assertEquals(16, ClientRepository.IN_LIST_SIZES[ClientRepository.inListSize(16)]);
+		assertEquals(128, ClientRepository.IN_LIST_SIZES[ClientRepository.inListSize(17)]);
+		assertEquals(128, ClientRepository.IN_LIST_SIZES[ClientRepository.inListSize(5000)]);
+	}
+
+	@Test
+	public void test_existingClientIDs_LongListIsChunked() throws Exception {
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		ResultSet results = mock(ResultSet.class);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeQuery()).thenReturn(results);
+		when(results.next()).thenReturn(true, false, false);
+		when(results.getInt(1)).thenReturn(3);
+		List<Integer> clientIDs = new ArrayList<Integer>();
+		for(int i = 1; i <= 200; i++) {
+			clientIDs.add(i);
+		}
+
+		assertEquals(1, ClientRepository.existingClientIDs(connection, clientIDs).size());
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		//both chunks are 128 wide, so the statement is only prepared once
+		verify(connection).prepareStatement(sql.capture());
+		assertEquals(128, sql.getValue().length() - sql.getValue().replace("?", "").length());
+		verify(statement, times(2)).executeQuery();
+		verify(statement, times(256)).setInt(anyInt(), anyInt());
+		//the second chunk is padded with the last ID
+		verify(statement, times(57)).setInt(anyInt(), eq(200));
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SchemaManagerTest {
+
+	private Connection connection;
+	private Statement statement;
+	private PreparedStatement record;
+	private ResultSet results;
+
+	@Before
+	public void beforeTest() throws SQLException {
+		connection = mock(Connection.class);
+		statement = mock(Statement.class);
+		record = mock(PreparedStatement.class);
+		results = mock(ResultSet.class);
+		when(connection.createStatement()).thenReturn(statement);
+		when(connection.prepareStatement(anyString())).thenReturn(record);
+		when(statement.executeQuery(anyString())).thenReturn(results);
+		when(results.next()).thenReturn(true);
+	}
+
+	@Test
+	public void test_migrate_FreshDatabase() throws SQLException {
+		when(results.getInt(1)).thenReturn(0);
+		assertEquals(SchemaManager.latestVersion(), SchemaManager.migrate(connection));
+		verify(statement).execute(SchemaManager.MIGRATIONS.get(0).statements.get(0));
+		verify(statement).execute(SchemaManager.MIGRATIONS.get(1).statements.get(0));
+	}
+
+	@Test
+	public void test_migrate_OnlyNewerMigrations() throws SQLException {
+		when(results.getInt(1)).thenReturn(1);
+		assertEquals(SchemaManager.latestVersion() - 1, SchemaManager.migrate(connection));
+		verify(statement, never()).execute(SchemaManager.MIGRATIONS.get(0).statements.get(0));
+		verify(statement).execute(SchemaManager.MIGRATIONS.get(1).statements.get(0));
+	}
+
+	@Test
+	public void test_migrate_AlreadyUpToDate() throws SQLException {
+		when(results.getInt(1)).thenReturn(SchemaManager.latestVersion());
+		assertEquals(0, SchemaManager.migrate(connection));
+		verify(statement).execute(SchemaManager.CREATE_VERSION_TABLE);
+		verify(record, never()).executeUpdate();
+	}
+
+	@Test
+	public void test_seed_SkippedWhenClientsExist() throws SQLException {
+		when(results.getBoolean(1)).thenReturn(true);
+		assertFalse(SchemaManager.seed(connection));
+		verify(connection, never()).prepareStatement(anyString(), anyInt());
+	}
+
+}
@@ -0,0 +1,203 @@
+package com.revature.dao.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+
+public class MutationJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private InMemoryClientStore clients;
+	private InMemoryAccountStore accounts;
+	private MutationJournal journal;
+
+	private boolean open(Path directory) throws IOException {
+		clients = new InMemoryClientStore(4);
+		accounts = new InMemoryAccountStore(clients, 4);
+		journal = new MutationJournal(directory, new InMemoryJournalTarget(clients, accounts), 4096, 16, 5, true, 0);
+		return journal.open();
+	}
+
+	@Test
+	public void test_open_ReplaysAfterRestart() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		assertFalse(open(directory));
+		JournaledClientStore clientStore = new JournaledClientStore(clients, journal);
+		JournaledAccountStore accountStore = new JournaledAccountStore(accounts, journal);
+		clientStore.newClient(new PostClientDTO("George", "Lucas"));
+		clientStore.updateClient(1, "Owen", "Wilson");
+		Account kept = accountStore.makeAccountForClient(500, 1);
+		Account deleted = accountStore.makeAccountForClient(700, 1);
+		accountStore.updateAccountVia2IDs(1, kept.getAccountID(), 900);
+		accountStore.deleteAccountVia2IDs(1, deleted.getAccountID());
+		journal.close();
+
+		assertTrue(open(directory));
+		assertEquals("Owen", clients.getClientById(1).getFirstName());
+		assertEquals(1, accounts.size());
+		assertEquals(900, accounts.getAccountVia2IDs(1, kept.getAccountID()).getAmount());
+		journal.close();
+	}
+
+	@Test
+	public void test_open_ReplaysTransfer() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		open(directory);
+		JournaledClientStore clientStore = new JournaledClientStore(clients, journal);
+		JournaledAccountStore accountStore = new JournaledAccountStore(accounts, journal);
+		clientStore.newClient(new PostClientDTO("George", "Lucas"));
+		clientStore.newClient(new PostClientDTO("Johnny", "Depp"));
+		Account from = accountStore.makeAccountForClient(500, 1);
+		Account to = accountStore.makeAccountForClient(100, 2);
+		accountStore.transferBetweenAccounts(1, from.getAccountID(), 2, to.getAccountID(), 150);
+		journal.close();
+
+		open(directory);
+		assertEquals(350, accounts.getAccountVia2IDs(1, from.getAccountID()).getAmount());
+		assertEquals(250, accounts.getAccountVia2IDs(2, to.getAccountID()).getAmount());
+		journal.close();
+	}
+
+	@Test
+	public void test_open_MapsPastFirstRegion() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		open(directory);
+		JournaledClientStore clientStore = new JournaledClientStore(clients, journal);
+		JournaledAccountStore accountStore = new JournaledAccountStore(accounts, journal);
+		clientStore.newClient(new PostClientDTO("George", "Lucas"));
+		for(int i = 0; i < 1000; i++) {
+			accountStore.makeAccountForClient(i, 1);
+		}
+		journal.close();
+
+		open(directory);
+		assertEquals(1000, accounts.size());
+		journal.close();
+	}
+
+	@Test
+	public void test_compact_SnapshotReplacesOldJournal() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		open(directory);
+		JournaledClientStore clientStore = new JournaledClientStore(clients, journal);
+		JournaledAccountStore accountStore = new JournaledAccountStore(accounts, journal);
+		clientStore.newClient(new PostClientDTO("George", "Lucas"));
+		accountStore.makeAccountForClient(500, 1);
+		journal.compact();
+		accountStore.makeAccountForClient(600, 1);
+		journal.close();
+
+		assertFalse(Files.exists(directory.resolve("journal-0.log")));
+		assertTrue(Files.exists(directory.resolve("snapshot.dat")));
+		open(directory);
+		assertEquals(2, accounts.size());
+		assertEquals(3, accounts.makeAccountForClient(100, 1).getAccountID());
+		journal.close();
+	}
+
+	@Test
+	public void test_open_StopsAtTornRecord() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		open(directory);
+		JournaledClientStore clientStore = new JournaledClientStore(clients, journal);
+		clientStore.newClient(new PostClientDTO("George", "Lucas"));
+		clientStore.newClient(new PostClientDTO("Johnny", "Depp"));
+		journal.close();
+
+		//flips a byte in the second record's payload like a write that never finished
+		Path file = directory.resolve("journal-0.log");
+		byte[] bytes = Files.readAllBytes(file);
+		int secondRecord = 8 + (bytes[3] & 0xff);
+		bytes[secondRecord + 9] ^= 0x7f;
+		Files.write(file, bytes);
+
+		open(directory);
+		assertEquals(1, clients.getAllClients().size());
+		journal.close();
+	}
+
+	@Test
+	public void test_open_OldRecordPastTornOneIsNotReplayed() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		open(directory);
+		journal.accountSaved(1, 1, 100);
+		journal.accountSaved(2, 1, 200);
+		journal.accountSaved(3, 1, 300);
+		journal.close();
+
+		//tears the second record, the third is still a good frame after it
+		Path file = directory.resolve("journal-0.log");
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[21 + 9] ^= 0x7f;
+		Files.write(file, bytes);
+
+		open(directory);
+		assertEquals(1, accounts.size());
+		//lands exactly where the torn record was
+		journal.accountSaved(4, 1, 400);
+		journal.close();
+
+		open(directory);
+		assertEquals(2, accounts.size());
+		assertEquals(-1, accounts.getAccountVia2IDs(1, 3).getAccountID());
+		journal.close();
+	}
+
+	@Test
+	public void test_close_AppendAfterCloseFails() throws Exception {
+		open(folder.getRoot().toPath());
+		journal.close();
+		try {
+			journal.accountSaved(1, 1, 100);
+			fail("IOException was not thrown");
+		} catch (IOException e) {
+		}
+	}
+
+	//the journal is written before memory, so a change it couldn't take isn't made at all
+	@Test
+	public void test_append_FailureLeavesStoreUntouched() throws Exception {
+		open(folder.getRoot().toPath());
+		JournaledClientStore clientStore = new JournaledClientStore(clients, journal);
+		JournaledAccountStore accountStore = new JournaledAccountStore(accounts, journal);
+		clientStore.newClient(new PostClientDTO("George", "Lucas"));
+		Account account = accountStore.makeAccountForClient(500, 1);
+		journal.close();
+		try {
+			accountStore.updateAccountVia2IDs(1, account.getAccountID(), 900);
+			fail("couldNotConnectToDatabaseException was not thrown");
+		} catch (couldNotConnectToDatabaseException e) {
+		}
+		try {
+			accountStore.makeAccountForClient(700, 1);
+			fail("couldNotConnectToDatabaseException was not thrown");
+		} catch (couldNotConnectToDatabaseException e) {
+		}
+		try {
+			clientStore.updateClient(1, "Owen", "Wilson");
+			fail("couldNotConnectToDatabaseException was not thrown");
+		} catch (couldNotConnectToDatabaseException e) {
+		}
+		assertEquals(500, accounts.getAccountVia2IDs(1, account.getAccountID()).getAmount());
+		assertEquals(1, accounts.size());
+		assertEquals("George", clients.getClientById(1).getFirstName());
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.revature.dao.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.revature.dao.AccountStore;
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+
+//An in-memory store stands in for MariaDB, and the latency is long enough that nothing is written unless a test flushes
+public class WriteBehindAccountStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private InMemoryClientStore clients;
+	private InMemoryAccountStore backing;
+	private WriteBehindAccountStore store;
+	private MutationJournal journal;
+
+	@Before
+	public void beforeTest() throws Exception {
+		clients = new InMemoryClientStore(4);
+		clients.seed();
+		backing = new InMemoryAccountStore(clients, 4);
+		backing.seed();
+		store = open(folder.getRoot().toPath(), 100);
+	}
+
+	@After
+	public void afterTest() {
+		store.close();
+	}
+
+	private WriteBehindAccountStore open(Path directory, int queueSize) throws Exception {
+		return open(directory, queueSize, backing, 0);
+	}
+
+	private WriteBehindAccountStore open(Path directory, int queueSize, AccountStore writeTo, long compactAfterBytes) throws Exception {
+		WriteBehindAccountStore opened = new WriteBehindAccountStore(writeTo, queueSize, 100, 60000, 50, compactAfterBytes, 1000);
+		journal = new MutationJournal(directory, opened.journalTarget(), 4096, 16, 5, true, 0);
+		opened.open(journal);
+		return opened;
+	}
+
+	@Test
+	public void test_updateAccountVia2IDs_CoalescedUntilFlush() throws Exception {
+		store.updateAccountVia2IDs(1, 1, 700);
+		store.updateAccountVia2IDs(1, 1, 800);
+		store.updateAccountVia2IDs(2, 5, 900);
+		assertEquals(new Account(1, 1, 800), store.getAccountVia2IDs(1, 1));
+		assertEquals(500, backing.getAccountVia2IDs(1, 1).getAmount());
+		assertEquals(2, store.flush());
+		assertEquals(800, backing.getAccountVia2IDs(1, 1).getAmount());
+		assertEquals(900, backing.getAccountVia2IDs(2, 5).getAmount());
+	}
+
+	@Test
+	public void test_open_ReplaysWhatWasNeverWritten() throws Exception {
+		store.updateAccountVia2IDs(3, 7, 1234);
+		//the server stopping without writing the queue out
+		journal.close();
+		store = open(folder.getRoot().toPath(), 100);
+		assertEquals(1, store.queued());
+		store.flush();
+		assertEquals(1234, backing.getAccountVia2IDs(3, 7).getAmount());
+	}
+
+	@Test
+	public void test_open_WrittenUpdatesAreNotReplayed() throws Exception {
+		store.close();
+		Path directory = folder.newFolder().toPath();
+		store = open(directory, 100, backing, Long.MAX_VALUE);
+		store.updateAccountVia2IDs(3, 7, 1234);
+		assertEquals(1, store.flush());
+		//changed after the write went out, a replay of the old update would undo this
+		backing.adjustAmountVia2IDs(3, 7, 100);
+		journal.close();
+		store = open(directory, 100, backing, Long.MAX_VALUE);
+		assertEquals(0, store.queued());
+		assertEquals(1334, backing.getAccountVia2IDs(3, 7).getAmount());
+	}
+
+	@Test
+	public void test_getAccountVia2IDs_SeesUpdateWhileItsBeingWritten() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InMemoryAccountStore slowBacking = new InMemoryAccountStore(clients, 4) {
+			@Override
+			public void updateAmounts(List<Account> accounts) throws couldNotConnectToDatabaseException {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.updateAmounts(accounts);
+			}
+		};
+		slowBacking.seed();
+		store.close();
+		store = open(folder.newFolder().toPath(), 100, slowBacking, 0);
+		store.updateAccountVia2IDs(1, 1, 700);
+		Thread flusher = new Thread(() -> {
+			try {
+				store.flush();
+			} catch (couldNotConnectToDatabaseException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		flusher.start();
+		writing.await();
+		assertEquals(0, store.queued());
+		assertEquals(new Account(1, 1, 700), store.getAccountVia2IDs(1, 1));
+		release.countDown();
+		flusher.join();
+		assertEquals(new Account(1, 1, 700), store.getAccountVia2IDs(1, 1));
+		assertEquals(700, slowBacking.getAccountVia2IDs(1, 1).getAmount());
+	}
+
+	@Test
+	public void test_updateAccountVia2IDs_AccountDoesNotExist() throws Exception {
+		try {
+			store.updateAccountVia2IDs(1, 99, 700);
+			fail("AccountNotFoundException was not thrown");
+		} catch (AccountNotFoundException e) {
+		}
+		assertEquals(0, store.queued());
+	}
+
+	@Test
+	public void test_updateAccountVia2IDs_FullQueuePushesBack() throws Exception {
+		store.close();
+		store = open(folder.newFolder().toPath(), 1);
+		store.updateAccountVia2IDs(1, 1, 700);
+		store.updateAccountVia2IDs(1, 1, 750);
+		try {
+			store.updateAccountVia2IDs(1, 2, 700);
+			fail("couldNotConnectToDatabaseException was not thrown");
+		} catch (couldNotConnectToDatabaseException e) {
+		}
+	}
+
+	@Test
+	public void test_adjustAmountVia2IDs_SeesQueuedUpdate() throws Exception {
+		store.updateAccountVia2IDs(1, 1, 100);
+		assertEquals(new Account(1, 1, 150), store.adjustAmountVia2IDs(1, 1, 50));
+		assertEquals(0, store.queued());
+	}
+
+	@Test
+	public void test_getAccountsViaClientID_SeesQueuedUpdate() throws Exception {
+		store.updateAccountVia2IDs(2, 6, 10);
+		assertEquals(new Account(6, 2, 10), store.getAccountsViaClientID(2).get(1));
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.revature.dao.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccountTableTest {
+
+	private AccountTable table;
+
+	@Before
+	public void beforeTest() {
+		table = new AccountTable(4);
+	}
+
+	private List<Integer> accountIDsOfClient(int clientID) {
+		List<Integer> accountIDs = new ArrayList<Integer>();
+		table.forEachOfClient(clientID, (aID, cID, amount) -> accountIDs.add(aID));
+		return accountIDs;
+	}
+
+	@Test
+	public void test_insert_LookupByAccountID() {
+		table.insert(10, 1, 500);
+		int slot = table.slotOf(10);
+		assertEquals(1, table.clientID(slot));
+		assertEquals(500, table.amount(slot));
+		assertEquals(AccountTable.NO_SLOT, table.slotOf(11));
+	}
+
+	@Test
+	public void test_insert_GrowsPastInitialCapacity() {
+		for(int i = 1; i <= 100; i++) {
+			table.insert(i, i % 3, i * 10);
+		}
+		assertEquals(100, table.size());
+		assertEquals(990, table.amount(table.slotOf(99)));
+		assertEquals(34, table.countOfClient(1));
+	}
+
+	@Test
+	public void test_forEachOfClient_InInsertOrder() {
+		table.insert(1, 1, 500);
+		table.insert(2, 2, 600);
+		table.insert(3, 1, 700);
+		table.insert(4, 1, 800);
+		assertEquals(Arrays.asList(1, 3, 4), accountIDsOfClient(1));
+	}
+
+	@Test
+	public void test_remove_UnlinksFromClient() {
+		table.insert(1, 1, 500);
+		table.insert(2, 1, 600);
+		table.insert(3, 1, 700);
+		table.remove(table.slotOf(1));
+		table.remove(table.slotOf(3));
+		assertEquals(Arrays.asList(2), accountIDsOfClient(1));
+		table.remove(table.slotOf(2));
+		assertFalse(table.hasClient(1));
+		assertEquals(0, table.size());
+	}
+
+	@Test
+	public void test_remove_SlotIsReused() {
+		table.insert(1, 1, 500);
+		int slot = table.slotOf(1);
+		table.remove(slot);
+		table.insert(2, 5, 900);
+		assertEquals(slot, table.slotOf(2));
+		assertEquals(Arrays.asList(2), accountIDsOfClient(5));
+	}
+
+	@Test
+	public void test_offHeap_GrowsAcrossChunks() {
+		AccountTable offHeapTable = new AccountTable(new OffHeapAccountRows(16));
+		for(int i = 1; i <= 40000; i++) {
+			offHeapTable.insert(i, i % 7, i);
+		}
+		assertEquals(40000, offHeapTable.size());
+		assertEquals(39999, offHeapTable.amount(offHeapTable.slotOf(39999)));
+		assertEquals(5714, offHeapTable.countOfClient(0));
+		offHeapTable.remove(offHeapTable.slotOf(7));
+		assertEquals(5713, offHeapTable.countOfClient(0));
+		assertEquals(3 * 16384 * 20L, offHeapTable.offHeapBytes());
+	}
+
+	@Test
+	public void test_nextSlotOfClient_WalksWholeClient() {
+		table.insert(1, 1, 500);
+		table.insert(2, 1, 600);
+		int count = 0;
+		for(int slot = table.firstSlotOfClient(1); slot != AccountTable.NO_SLOT; slot = table.nextSlotOfClient(slot)) {
+			count++;
+		}
+		assertEquals(2, count);
+	}
+
+	@Test
+	public void test_insert_ClientKeptInAccountIDOrder() {
+		table.insert(20, 1, 500);
+		table.insert(30, 1, 500);
+		table.insert(10, 1, 500);
+		table.insert(25, 1, 500);
+		assertEquals(Arrays.asList(10, 20, 25, 30), accountIDsOfClient(1));
+	}
+
+	@Test
+	public void test_firstSlotOfClientAfter_CursorAccountDeleted() {
+		for(int i = 1; i <= 5; i++) {
+			table.insert(i, 1, 500);
+		}
+		assertEquals(4, table.accountID(table.firstSlotOfClientAfter(1, 3)));
+		table.remove(table.slotOf(3));
+		assertEquals(4, table.accountID(table.firstSlotOfClientAfter(1, 3)));
+		assertEquals(1, table.accountID(table.firstSlotOfClientAfter(1, 0)));
+		assertEquals(AccountTable.NO_SLOT, table.firstSlotOfClientAfter(1, 5));
+	}
+
+}
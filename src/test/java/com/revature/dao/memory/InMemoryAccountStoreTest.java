@@ -0,0 +1,206 @@
+package com.revature.dao.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.dto.PostClientDTO;
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ClientNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.exceptions.couldNotConnectToDatabaseException;
+import com.revature.model.Account;
+
+public class InMemoryAccountStoreTest {
+
+	private InMemoryClientStore clientStore;
+	private InMemoryAccountStore accountStore;
+
+	@Before
+	public void beforeTest() {
+		clientStore = new InMemoryClientStore(4);
+		clientStore.seed();
+		accountStore = new InMemoryAccountStore(clientStore, 4);
+		accountStore.seed();
+	}
+
+	@Test
+	public void test_makeAccountForClient_NoIssue() throws couldNotConnectToDatabaseException, ClientNotFoundException, AccountNotFoundException, AccountClientMismatchException {
+		Account actual = accountStore.makeAccountForClient(700, 4);
+		assertEquals(new Account(8, 4, 700), actual);
+		assertEquals(actual, accountStore.getAccountVia2IDs(4, 8));
+	}
+
+	@Test
+	public void test_makeAccountForClient_ClientDoesNotExist() throws couldNotConnectToDatabaseException {
+		try {
+			accountStore.makeAccountForClient(700, 10);
+			fail("ClientNotFoundException was not thrown");
+		} catch (ClientNotFoundException e) {
+		}
+	}
+
+	@Test
+	public void test_getAccountsViaClientID_NoIssue() throws AccountNotFoundException {
+		List<Account> expected = new ArrayList<Account>();
+		expected.add(new Account(5, 2, 4000));
+		expected.add(new Account(6, 2, 2500));
+		assertEquals(expected, accountStore.getAccountsViaClientID(2));
+	}
+
+	@Test
+	public void test_getAccountVia2IDs_Mismatch() {
+		try {
+			accountStore.getAccountVia2IDs(2, 1);
+			fail("AccountClientMismatchException was not thrown");
+		} catch (AccountClientMismatchException e) {
+		}
+	}
+
+	@Test
+	public void test_getAccountVia2IDs_NotFound() throws AccountClientMismatchException {
+		assertEquals(-1, accountStore.getAccountVia2IDs(1, 99).getAccountID());
+	}
+
+	@Test
+	public void test_getAccountsBetweenTwoValues_NoIssue() throws AccountNotFoundException, ClientNotFoundException {
+		List<Account> expected = new ArrayList<Account>();
+		expected.add(new Account(3, 1, 1500));
+		expected.add(new Account(4, 1, 2000));
+		assertEquals(expected, accountStore.getAccountsBetweenTwoValues(1, 1000, 2000));
+	}
+
+	@Test
+	public void test_getAccountsBetweenTwoValues_ClientWithoutAccounts() throws AccountNotFoundException {
+		try {
+			accountStore.getAccountsBetweenTwoValues(4, 0, 1000);
+			fail("ClientNotFoundException was not thrown");
+		} catch (ClientNotFoundException e) {
+		}
+	}
+
+	@Test
+	public void test_updateAccountVia2IDs_NoIssue() throws AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		accountStore.updateAccountVia2IDs(1, 1, 900);
+		assertEquals(new Account(1, 1, 900), accountStore.getAccountVia2IDs(1, 1));
+	}
+
+	@Test
+	public void test_updateAccountVia2IDs_Mismatch() throws AccountNotFoundException, ClientNotFoundException {
+		try {
+			accountStore.updateAccountVia2IDs(2, 1, 900);
+			fail("AccountClientMismatchException was not thrown");
+		} catch (AccountClientMismatchException e) {
+		}
+	}
+
+	@Test
+	public void test_deleteAccountVia2IDs_NoIssue() throws AccountNotFoundException, AccountClientMismatchException, ClientNotFoundException {
+		assertEquals(new Account(7, 3, 3000), accountStore.deleteAccountVia2IDs(3, 7));
+		try {
+			accountStore.deleteAccountVia2IDs(3, 7);
+			fail("ClientNotFoundException was not thrown");
+		} catch (ClientNotFoundException e) {
+		}
+	}
+
+	@Test
+	public void test_deleteAccountVia2IDs_AccountDoesNotExist() throws AccountClientMismatchException, ClientNotFoundException {
+		try {
+			accountStore.deleteAccountVia2IDs(1, 99);
+			fail("AccountNotFoundException was not thrown");
+		} catch (AccountNotFoundException e) {
+		}
+	}
+
+	@Test
+	public void test_adjustAmountVia2IDs_DepositIntoNegativeAccount() throws Exception {
+		accountStore.updateAccountVia2IDs(1, 1, -300);
+		assertEquals(new Account(1, 1, -250), accountStore.adjustAmountVia2IDs(1, 1, 50));
+		try {
+			accountStore.adjustAmountVia2IDs(1, 1, -1);
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+		}
+		assertEquals(new Account(1, 1, -250), accountStore.getAccountVia2IDs(1, 1));
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_NoIssue() throws Exception {
+		List<Account> expected = new ArrayList<Account>();
+		expected.add(new Account(1, 1, 300));
+		expected.add(new Account(7, 3, 3200));
+		assertEquals(expected, accountStore.transferBetweenAccounts(1, 1, 3, 7, 200));
+		assertEquals(new Account(7, 3, 3200), accountStore.getAccountVia2IDs(3, 7));
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_NotEnoughLeavesBoth() throws Exception {
+		try {
+			accountStore.transferBetweenAccounts(1, 1, 3, 7, 501);
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+		}
+		assertEquals(new Account(1, 1, 500), accountStore.getAccountVia2IDs(1, 1));
+		assertEquals(new Account(7, 3, 3000), accountStore.getAccountVia2IDs(3, 7));
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_OppositeWaysAtOnce() throws Exception {
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			boolean forward = t % 2 == 0;
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < 1000; i++) {
+					try {
+						if(forward) {
+							accountStore.transferBetweenAccounts(2, 5, 3, 7, 1);
+						} else {
+							accountStore.transferBetweenAccounts(3, 7, 2, 5, 1);
+						}
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(4000, accountStore.getAccountVia2IDs(2, 5).getAmount());
+		assertEquals(3000, accountStore.getAccountVia2IDs(3, 7).getAmount());
+	}
+
+	//picking the stripe from the wrong bits of the mix shows up as long probe runs in each stripe
+	@Test
+	public void test_stripes_KeysSpreadWithinEachStripe() throws Exception {
+		InMemoryClientStore manyClients = new InMemoryClientStore(64);
+		InMemoryAccountStore manyStripes = new InMemoryAccountStore(manyClients, 64);
+		for(int i = 0; i < 20000; i++) {
+			int clientID = manyClients.newClient(new PostClientDTO("Client", "" + i)).getId();
+			manyStripes.makeAccountForClient(100, clientID);
+		}
+		assertTrue("Worst average probe length was " + manyStripes.worstProbeLength(), manyStripes.worstProbeLength() < 3);
+	}
+
+	@Test
+	public void test_getAccountsBetweenPage_PagesInAccountIDOrder() throws Exception {
+		List<Account> first = accountStore.getAccountsBetweenPage(1, 1000, 5000, 0, 2);
+		assertEquals(2, first.size());
+		assertEquals(2, first.get(0).getAccountID());
+		assertEquals(3, first.get(1).getAccountID());
+		List<Account> second = accountStore.getAccountsBetweenPage(1, 1000, 5000, 3, 2);
+		assertEquals(1, second.size());
+		assertEquals(new Account(4, 1, 2000), second.get(0));
+		assertEquals(0, accountStore.getAccountsPage(1, 4, 2).size());
+	}
+
+}
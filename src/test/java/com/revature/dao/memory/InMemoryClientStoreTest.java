@@ -0,0 +1,45 @@
+package com.revature.dao.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.model.Client;
+
+public class InMemoryClientStoreTest {
+
+	private InMemoryClientStore clientStore;
+
+	@Before
+	public void beforeTest() {
+		clientStore = new InMemoryClientStore(4);
+		clientStore.seed();
+	}
+
+	@Test
+	public void test_getClientsAfter_PagesInIDOrder() throws Exception {
+		clientStore.newClientByID(40, "Harrison", "Ford");
+		clientStore.newClientByID(20, "Carrie", "Fisher");
+		assertEquals(2, clientStore.getClientsAfter(0, 2).get(1).getId());
+		List<Client> page = clientStore.getClientsAfter(3, 2);
+		assertEquals(2, page.size());
+		assertEquals(4, page.get(0).getId());
+		assertEquals(20, page.get(1).getId());
+		assertEquals(40, clientStore.getClientsAfter(20, 2).get(0).getId());
+		assertEquals(0, clientStore.getClientsAfter(40, 2).size());
+	}
+
+	@Test
+	public void test_streamAllClients_InIDOrder() throws Exception {
+		clientStore.newClientByID(10, "Harrison", "Ford");
+		List<Integer> ids = new ArrayList<Integer>();
+		clientStore.streamAllClients(client -> ids.add(client.getId()));
+		assertEquals(5, ids.size());
+		assertEquals(Integer.valueOf(10), ids.get(4));
+	}
+
+}
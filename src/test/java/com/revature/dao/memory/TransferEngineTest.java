@@ -0,0 +1,231 @@
+package com.revature.dao.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.exceptions.AccountClientMismatchException;
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.InsufficientFundsException;
+import com.revature.model.Account;
+
+//The engine is put in front of an in-memory store here so what has and hasn't been flushed can be checked
+public class TransferEngineTest {
+
+	private InMemoryAccountStore backing;
+	private TransferEngine engine;
+
+	@Before
+	public void beforeTest() {
+		InMemoryClientStore clientStore = new InMemoryClientStore(4);
+		clientStore.seed();
+		backing = new InMemoryAccountStore(clientStore, 4);
+		backing.seed();
+		//long enough that nothing gets flushed unless a test asks for it
+		engine = new TransferEngine(backing, 8, 60000, 1000);
+	}
+
+	@After
+	public void afterTest() {
+		engine.close();
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_FlushedLater() throws Exception {
+		engine.transferBetweenAccounts(1, 1, 3, 7, 200);
+		assertEquals(new Account(1, 1, 300), engine.getAccountVia2IDs(1, 1));
+		assertEquals(500, backing.getAccountVia2IDs(1, 1).getAmount());
+		assertEquals(2, engine.flush());
+		assertEquals(300, backing.getAccountVia2IDs(1, 1).getAmount());
+		assertEquals(3200, backing.getAccountVia2IDs(3, 7).getAmount());
+		assertEquals(0, engine.flush());
+	}
+
+	@Test
+	public void test_getAccountsViaClientID_SeesUnflushedChanges() throws Exception {
+		engine.adjustAmountVia2IDs(2, 5, 100);
+		List<Account> accounts = engine.getAccountsViaClientID(2);
+		assertEquals(new Account(5, 2, 4100), accounts.get(0));
+	}
+
+	@Test
+	public void test_adjustAmountVia2IDs_DepositIntoNegativeAccount() throws Exception {
+		backing.updateAccountVia2IDs(1, 1, -300);
+		assertEquals(new Account(1, 1, -250), engine.adjustAmountVia2IDs(1, 1, 50));
+		try {
+			engine.adjustAmountVia2IDs(1, 1, -1);
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+		}
+		engine.flush();
+		assertEquals(-250, backing.getAccountVia2IDs(1, 1).getAmount());
+	}
+
+	@Test
+	public void test_getAccountVia2IDs_ReadDoesNotLoad() throws Exception {
+		assertEquals(new Account(1, 1, 500), engine.getAccountVia2IDs(1, 1));
+		assertEquals(0, engine.size());
+		engine.adjustAmountVia2IDs(1, 1, 10);
+		assertEquals(1, engine.size());
+		assertEquals(new Account(1, 1, 510), engine.getAccountVia2IDs(1, 1));
+	}
+
+	@Test
+	public void test_flush_DropsColdAccountsOverCapacity() throws Exception {
+		TransferEngine small = new TransferEngine(backing, 1, 60000, 1);
+		try {
+			small.adjustAmountVia2IDs(1, 1, 10);
+			small.adjustAmountVia2IDs(2, 5, 10);
+			small.adjustAmountVia2IDs(3, 7, 10);
+			assertEquals(3, small.flush());
+			//all three were just written, so they're still hot
+			assertEquals(3, small.size());
+			small.adjustAmountVia2IDs(1, 1, 10);
+			assertEquals(1, small.flush());
+			assertEquals(1, small.size());
+			assertEquals(new Account(1, 1, 520), small.getAccountVia2IDs(1, 1));
+			assertEquals(new Account(5, 2, 4010), small.getAccountVia2IDs(2, 5));
+			assertEquals(new Account(7, 3, 3010), small.getAccountVia2IDs(3, 7));
+		} finally {
+			small.close();
+		}
+	}
+
+	@Test
+	public void test_getAccountsBetweenTwoValues_SeesUnflushedChanges() throws Exception {
+		engine.adjustAmountVia2IDs(2, 5, -3950);
+		List<Account> accounts = engine.getAccountsBetweenTwoValues(2, 0, 100);
+		assertEquals(1, accounts.size());
+		assertEquals(new Account(5, 2, 50), accounts.get(0));
+		assertEquals(4000, backing.getAccountVia2IDs(2, 5).getAmount());
+	}
+
+	@Test(timeout = 10000)
+	public void test_adjustAmountVia2IDs_SlowLoadDoesNotHoldStripe() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InMemoryClientStore clientStore = new InMemoryClientStore(4);
+		clientStore.seed();
+		InMemoryAccountStore slowBacking = new InMemoryAccountStore(clientStore, 4) {
+			@Override
+			public Account getAccountVia2IDs(int clientID, int accountID) throws AccountClientMismatchException {
+				if(accountID == 1) {
+					loading.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.getAccountVia2IDs(clientID, accountID);
+			}
+		};
+		slowBacking.seed();
+		TransferEngine oneStripe = new TransferEngine(slowBacking, 1, 60000, 1000);
+		try {
+			Thread slow = new Thread(() -> {
+				try {
+					oneStripe.adjustAmountVia2IDs(1, 1, 10);
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			});
+			slow.start();
+			loading.await();
+			assertEquals(new Account(5, 2, 4010), oneStripe.adjustAmountVia2IDs(2, 5, 10));
+			release.countDown();
+			slow.join();
+			assertEquals(new Account(1, 1, 510), oneStripe.getAccountVia2IDs(1, 1));
+		} finally {
+			oneStripe.close();
+		}
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_NotEnough() throws Exception {
+		try {
+			engine.transferBetweenAccounts(1, 1, 3, 7, 501);
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+		}
+		assertEquals(0, engine.flush());
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_MissingAccountFailsLikeBacking() throws Exception {
+		engine.adjustAmountVia2IDs(1, 1, 100);
+		try {
+			engine.transferBetweenAccounts(1, 1, 3, 99, 50);
+			fail("AccountNotFoundException was not thrown");
+		} catch (AccountNotFoundException e) {
+		}
+		try {
+			engine.transferBetweenAccounts(1, 1, 3, 5, 50);
+			fail("AccountClientMismatchException was not thrown");
+		} catch (AccountClientMismatchException e) {
+		}
+		assertEquals(600, engine.getAccountVia2IDs(1, 1).getAmount());
+		assertEquals(600, backing.getAccountVia2IDs(1, 1).getAmount());
+	}
+
+	@Test
+	public void test_deleteAccountVia2IDs_GivesBackEngineAmount() throws Exception {
+		engine.adjustAmountVia2IDs(3, 7, 500);
+		assertEquals(new Account(7, 3, 3500), engine.deleteAccountVia2IDs(3, 7));
+		assertEquals(0, engine.flush());
+		assertEquals(-1, engine.getAccountVia2IDs(3, 7).getAccountID());
+	}
+
+	@Test
+	public void test_transferBetweenAccounts_ManyThreads() throws Exception {
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++) {
+			boolean forward = t % 2 == 0;
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < 1000; i++) {
+					try {
+						if(forward) {
+							engine.transferBetweenAccounts(2, 5, 1, 2, 1);
+						} else {
+							engine.transferBetweenAccounts(1, 2, 2, 5, 1);
+						}
+						if(i % 100 == 0) {
+							engine.flush();
+						}
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		engine.flush();
+		assertEquals(4000, backing.getAccountVia2IDs(2, 5).getAmount());
+		assertEquals(5000, backing.getAccountVia2IDs(1, 2).getAmount());
+	}
+
+	@Test
+	public void test_stripes_KeysSpreadWithinEachStripe() throws Exception {
+		TransferEngine manyStripes = new TransferEngine(backing, 64, 60000, 100000);
+		try {
+			for(int i = 0; i < 20000; i++) {
+				int accountID = backing.makeAccountForClient(100, 4).getAccountID();
+				manyStripes.adjustAmountVia2IDs(4, accountID, 1);
+			}
+			assertTrue("Worst average probe length was " + manyStripes.worstProbeLength(), manyStripes.worstProbeLength() < 3);
+		} finally {
+			manyStripes.close();
+		}
+	}
+
+}
@@ -2,9 +2,13 @@ package com.revature.service;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.MockedStatic;
 
@@ -12,15 +16,26 @@ import org.mockito.MockedStatic;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.revature.dao.AccountRepository;
+import com.revature.dao.AccountStore;
 import com.revature.dao.ClientRepository;
+import com.revature.dao.memory.InMemoryAccountStore;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.dto.AccountPageDTO;
 import com.revature.dto.PostAccountDTO;
+import com.revature.dto.PostTransferDTO;
+import com.revature.dto.TransferDTO;
+import com.revature.dto.PostClientAccountDTO;
 import com.revature.exceptions.AccountAddException;
 import com.revature.exceptions.AccountClientMismatchException;
 import com.revature.exceptions.AccountNotFoundException;
@@ -29,8 +44,10 @@ import com.revature.exceptions.BadParameterException;
 import com.revature.exceptions.ClientAlreadyExistsException;
 import com.revature.exceptions.ClientNotFoundException;
 import com.revature.exceptions.EmptyParameterException;
+import com.revature.exceptions.InsufficientFundsException;
 import com.revature.exceptions.couldNotConnectToDatabaseException;
 import com.revature.model.Account;
+import com.revature.util.AccountCursor;
 import com.revature.util.ConnectionUtil;
 
 public class AccountServiceTest {
@@ -93,6 +110,9 @@ public class AccountServiceTest {
 		
 		when(mockAccountRepository.getAccountsBetweenTwoValues(eq(2), eq(500), eq(900)))
 				.thenThrow(new ClientNotFoundException("The client with the ID 2 was not found"));
+		
+		when(mockAccountRepository.makeAccounts(eq(Arrays.asList(new Account(-1, 1, 500), new Account(-1, 2, 700)))))
+				.thenReturn(Arrays.asList(new Account(8, 1, 500), new Account(9, 2, 700)));
 	}
 	
 	@Before
@@ -466,10 +486,11 @@ public class AccountServiceTest {
 		try(MockedStatic<ConnectionUtil> mockedConnectionUtil = mockStatic(ConnectionUtil.class)) {
 			mockedConnectionUtil.when(ConnectionUtil::getConnection).thenReturn(mockConnection);
 			
+			//the miss indexes the client's accounts, so they come back sorted by amount
 			ArrayList<Account> expected = new ArrayList<Account>(3);
 			expected.add(new Account(1, 1, 1000));
-			expected.add(new Account(2, 1, 5000));
 			expected.add(new Account(3, 2, 3000));
+			expected.add(new Account(2, 1, 5000));
 			ArrayList<Account> actual = (ArrayList<Account>) accountService.getAccountsBetweenTwoValues("1", "500", "6000");
 			assertEquals(expected, actual);
 		}
@@ -596,7 +617,47 @@ public class AccountServiceTest {
 				accountService.getAccountsBetweenTwoValues("1", "500", "900");
 				fail("AccountNotFoundException was not thrown");
 			} catch (AccountNotFoundException e) {
-				assertEquals(e.getMessage(), "No accounts with amounts between 400 and 2000 were found.");
+				assertEquals(e.getMessage(), "No accounts with amounts between 500 and 900 were found.");
+			}
+		}
+	}
+	
+	@Test
+	public void test_getAccountsBetweenTwoValues_MissIndexesClient() throws Exception {
+		AccountStore store = mock(AccountStore.class);
+		when(store.getAccountsViaClientID(5)).thenReturn(Arrays.asList(new Account(10, 5, 100), new Account(11, 5, 900)));
+		AccountService service = new AccountService(null, store);
+		assertEquals(Arrays.asList(new Account(10, 5, 100)), service.getAccountsBetweenTwoValues("5", "50", "500"));
+		assertEquals(Arrays.asList(new Account(11, 5, 900)), service.getAccountsBetweenTwoValues("5", "500", "1000"));
+		verify(store, times(1)).getAccountsViaClientID(5);
+		verify(store, never()).getAccountsBetweenTwoValues(anyInt(), anyInt(), anyInt());
+	}
+	
+	@Test
+	public void test_getAccountsBetweenTwoValues_FromIndex() throws BadParameterException, AccountNotFoundException, couldNotConnectToDatabaseException, EmptyParameterException, ClientNotFoundException {
+		try(MockedStatic<ConnectionUtil> mockedConnectionUtil = mockStatic(ConnectionUtil.class)) {
+			mockedConnectionUtil.when(ConnectionUtil::getConnection).thenReturn(mockConnection);
+			
+			accountService.getAccountsByClientID("1");
+			ArrayList<Account> expected = new ArrayList<Account>(2);
+			expected.add(new Account(3, 2, 3000));
+			expected.add(new Account(2, 1, 5000));
+			ArrayList<Account> actual = (ArrayList<Account>) accountService.getAccountsBetweenTwoValues("1", "2000", "6000");
+			assertEquals(expected, actual);
+		}
+	}
+	
+	@Test
+	public void test_getAccountsBetweenTwoValues_FromIndex_NoAccountsFound() throws BadParameterException, couldNotConnectToDatabaseException, EmptyParameterException, ClientNotFoundException, AccountNotFoundException {
+		try(MockedStatic<ConnectionUtil> mockedConnectionUtil = mockStatic(ConnectionUtil.class)) {
+			mockedConnectionUtil.when(ConnectionUtil::getConnection).thenReturn(mockConnection);
+			
+			accountService.getAccountsByClientID("1");
+			try {
+				accountService.getAccountsBetweenTwoValues("1", "6000", "9000");
+				fail("AccountNotFoundException was not thrown");
+			} catch (AccountNotFoundException e) {
+				assertEquals(e.getMessage(), "No accounts with amounts between 6000 and 9000 were found.");
 			}
 		}
 	}
@@ -989,4 +1050,174 @@ public class AccountServiceTest {
 	}	
 	
 	
-}
\ No newline at end of file
+	@Test
+	public void test_addAccounts_ManyClients() throws Exception {
+		List<Account> actual = accountService.addAccounts(Arrays.asList(new PostClientAccountDTO("1", "500"), new PostClientAccountDTO("2", "700")));
+		assertEquals(Arrays.asList(new Account(8, 1, 500), new Account(9, 2, 700)), actual);
+		assertEquals(new Account(9, 2, 700), accountService.getAccountBy2IDs("2", "9"));
+	}
+	
+	@Test
+	public void test_addAccounts_NonIntegerAmount() throws Exception {
+		try {
+			accountService.addAccounts(Arrays.asList(new PostAccountDTO("500"), new PostAccountDTO("abc")), "1");
+			fail("BadParameterException was not thrown");
+		} catch (BadParameterException e) {
+			assertEquals("Client ID and amount in the account must be int values. User provided 1 for client ID and abc for amount in the account", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_getAccountsPage_CursorWalksAllPages() throws Exception {
+		InMemoryClientStore clients = new InMemoryClientStore(4);
+		clients.seed();
+		InMemoryAccountStore accounts = new InMemoryAccountStore(clients, 4);
+		accounts.seed();
+		AccountService service = new AccountService(clients, accounts);
+		AccountPageDTO first = service.getAccountsPage("1", null, null, null, "3");
+		assertEquals(3, first.getAccounts().size());
+		AccountPageDTO second = service.getAccountsPage("1", null, null, first.getNextCursor(), "3");
+		assertEquals(Arrays.asList(new Account(4, 1, 2000)), second.getAccounts());
+		assertEquals(null, second.getNextCursor());
+	}
+	
+	@Test
+	public void test_getAccountsPage_CursorForOtherClient() throws Exception {
+		try {
+			accountService.getAccountsPage("2", null, null, AccountCursor.encode(1, 3), "3");
+			fail("BadParameterException was not thrown");
+		} catch (BadParameterException e) {
+			assertEquals("The cursor " + AccountCursor.encode(1, 3) + " belongs to a different client", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_deposit_ReturnsNewAmount() throws Exception {
+		when(mockAccountRepository.adjustAmountVia2IDs(eq(1), eq(1), eq(250)))
+				.thenReturn(new Account(1, 1, 2250));
+		assertEquals(new Account(1, 1, 2250), accountService.deposit("1", "1", "250"));
+	}
+	
+	@Test
+	public void test_withdraw_NegativeAmount() throws Exception {
+		try {
+			accountService.withdraw("1", "1", "-250");
+			fail("BadParameterException was not thrown");
+		} catch (BadParameterException e) {
+			assertEquals("Amount must be more than 0. User provided -250", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_withdraw_NoOverdraft() throws Exception {
+		InMemoryClientStore clients = new InMemoryClientStore(4);
+		clients.seed();
+		InMemoryAccountStore accounts = new InMemoryAccountStore(clients, 4);
+		accounts.seed();
+		AccountService service = new AccountService(clients, accounts);
+		assertEquals(new Account(1, 1, 100), service.withdraw("1", "1", "400"));
+		try {
+			service.withdraw("1", "1", "101");
+			fail("InsufficientFundsException was not thrown");
+		} catch (InsufficientFundsException e) {
+			assertEquals(new Account(1, 1, 100), service.getAccountBy2IDs("1", "1"));
+		}
+	}
+	
+	@Test
+	public void test_transfer_ToSameAccount() throws Exception {
+		try {
+			accountService.transfer("1", "1", new PostTransferDTO("1", "1", "100"));
+			fail("BadParameterException was not thrown");
+		} catch (BadParameterException e) {
+			assertEquals("An account can't transfer to itself. User provided account 1 for both", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_transfer_NoIssue() throws Exception {
+		when(mockAccountRepository.transferBetweenAccounts(eq(1), eq(1), eq(2), eq(5), eq(100)))
+				.thenReturn(Arrays.asList(new Account(1, 1, 1900), new Account(5, 2, 4100)));
+		TransferDTO actual = accountService.transfer("1", "1", new PostTransferDTO("2", "5", "100"));
+		assertEquals(new Account(1, 1, 1900), actual.getFrom());
+		assertEquals(new Account(5, 2, 4100), actual.getTo());
+	}
+	
+	//Runs the call on its own thread, it can't throw out of there so any failure is kept for the test to rethrow
+	private static Thread runAside(AtomicReference<Exception> failure, Callable call) {
+		Thread thread = new Thread(() -> {
+			try {
+				call.call();
+			} catch (Exception e) {
+				failure.set(e);
+			}
+		});
+		thread.start();
+		return thread;
+	}
+	
+	private interface Callable {
+		void call() throws Exception;
+	}
+	
+	@Test
+	public void test_getAccountBy2IDs_LoadThatRacedAnUpdateIsNotCached() throws Exception {
+		AccountStore store = mock(AccountStore.class);
+		AtomicInteger amount = new AtomicInteger(500);
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch updated = new CountDownLatch(1);
+		//the first read gets the old row, then stalls until the update is done with the cache
+		when(store.getAccountVia2IDs(eq(1), eq(1))).thenAnswer(invocation -> {
+			Account account = new Account(1, 1, amount.get());
+			loaded.countDown();
+			updated.await();
+			return account;
+		});
+		when(store.updateAccountVia2IDs(eq(1), eq(1), eq(900))).thenAnswer(invocation -> {
+			amount.set(900);
+			return new Account(1, 1, 900);
+		});
+		AccountService service = new AccountService(null, store);
+		AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		Thread reader = runAside(failure, () -> service.getAccountBy2IDs("1", "1"));
+		loaded.await();
+		service.updateAccountBy2IDs("1", "1", "900");
+		updated.countDown();
+		reader.join();
+		if(failure.get() != null) {
+			throw failure.get();
+		}
+		assertEquals(900, service.getAccountBy2IDs("1", "1").getAmount());
+	}
+	
+	@Test
+	public void test_getAccountsByClientID_LoadThatRacedAnAddIsNotIndexed() throws Exception {
+		AccountStore store = mock(AccountStore.class);
+		List<Account> accounts = new ArrayList<Account>(Arrays.asList(new Account(1, 1, 500)));
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch added = new CountDownLatch(1);
+		when(store.getAccountsViaClientID(eq(1))).thenAnswer(invocation -> {
+			List<Account> copy = new ArrayList<Account>(accounts);
+			loaded.countDown();
+			added.await();
+			return copy;
+		});
+		when(store.makeAccountForClient(eq(700), eq(1))).thenAnswer(invocation -> {
+			Account account = new Account(2, 1, 700);
+			accounts.add(account);
+			return account;
+		});
+		AccountService service = new AccountService(null, store);
+		AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		Thread reader = runAside(failure, () -> service.getAccountsByClientID("1"));
+		loaded.await();
+		service.addAccount(new PostAccountDTO("700"), "1");
+		added.countDown();
+		reader.join();
+		if(failure.get() != null) {
+			throw failure.get();
+		}
+		assertEquals(accounts, service.getAccountsByClientID("1"));
+	}
+	
+}
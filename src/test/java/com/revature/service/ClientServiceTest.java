@@ -10,9 +10,12 @@ import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.MockedStatic;
 
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Before;
@@ -20,6 +23,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.revature.dao.ClientRepository;
+import com.revature.dao.memory.InMemoryClientStore;
+import com.revature.dto.ClientPageDTO;
+import com.revature.dto.ImportSummaryDTO;
 import com.revature.dto.PostClientDTO;
 import com.revature.exceptions.BadParameterException;
 import com.revature.exceptions.ClientAddException;
@@ -57,6 +63,9 @@ public class ClientServiceTest {
 		fullList.add(new Client(1, "George", "Lucas"));
 		fullList.add(new Client(2, "Johnny", "Depp"));
 		when(mockClientRepository.getAllClients()).thenReturn(fullList);
+		
+		when(mockClientRepository.updateClients(eq(Arrays.asList(new Client(1, "Tommy", "Wiseau"), new Client(9, "Greg", "Sestero")))))
+				.thenReturn(Arrays.asList(new Client(1, "Tommy", "Wiseau")));
 	}
 	
 	@Before
@@ -305,4 +314,72 @@ public class ClientServiceTest {
 		}
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void test_updateClients_OnlyExistingClientsReturned() throws Exception {
+		List<Client> actual = clientService.updateClients(Arrays.asList(new Client(1, "Tommy", "Wiseau"), new Client(9, "Greg", "Sestero")));
+		assertEquals(Arrays.asList(new Client(1, "Tommy", "Wiseau")), actual);
+	}
+	
+	@Test
+	public void test_updateClients_BlankName() throws Exception {
+		try {
+			clientService.updateClients(Arrays.asList(new Client(1, "Tommy", "Wiseau"), new Client(2, " ", "Sestero")));
+			fail("EmptyParameterException was not thrown");
+		} catch (EmptyParameterException e) {
+			assertEquals("When trying to update Clients, one or more of the parameters were left blank.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void test_importClients_JsonArray() throws Exception {
+		InMemoryClientStore store = new InMemoryClientStore(4);
+		String body = "[{\"firstName\":\"Tommy\",\"lastName\":\"Wiseau\"},{\"firstName\":\"\",\"lastName\":\"Sestero\"},{\"firstName\":\"Juliette\",\"lastName\":\"Danielle\"}]";
+		ImportSummaryDTO summary = new ClientService(store).importClients(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(2, summary.getImported());
+		assertEquals(1, summary.getRejected());
+		assertEquals("Juliette", store.getClientById(2).getFirstName());
+	}
+	
+	@Test
+	public void test_importClients_NewlineDelimited() throws Exception {
+		InMemoryClientStore store = new InMemoryClientStore(4);
+		String body = "{\"firstName\":\"Tommy\",\"lastName\":\"Wiseau\"}\n{\"firstName\":\"Greg\",\"lastName\":\"Sestero\"}\n";
+		ImportSummaryDTO summary = new ClientService(store).importClients(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(2, summary.getImported());
+		assertEquals(2, store.getAllClients().size());
+	}
+	
+	@Test
+	public void test_importClients_NotClients() throws Exception {
+		try {
+			new ClientService(new InMemoryClientStore(4)).importClients(new ByteArrayInputStream("[1, 2]".getBytes(StandardCharsets.UTF_8)));
+			fail("BadParameterException was not thrown");
+		} catch (BadParameterException e) {
+			assertEquals("Clients to import must be a JSON array of clients or one client per line. Stopped at VALUE_NUMBER_INT after 0 clients were imported", e.getMessage());
+		}
+	}
+
+	@Test
+	public void test_getClientsPage_WalksAllPages() throws Exception {
+		InMemoryClientStore store = new InMemoryClientStore(4);
+		store.seed();
+		ClientService service = new ClientService(store);
+		ClientPageDTO first = service.getClientsPage(null, "3");
+		assertEquals(3, first.getClients().size());
+		assertEquals(Integer.valueOf(3), first.getNextAfter());
+		ClientPageDTO last = service.getClientsPage(String.valueOf(first.getNextAfter()), "3");
+		assertEquals(Arrays.asList(new Client(4, "Nicholas", "Cage")), last.getClients());
+		assertEquals(null, last.getNextAfter());
+	}
+	
+	@Test
+	public void test_getClientsPage_LimitTooLarge() throws Exception {
+		try {
+			clientService.getClientsPage("0", "100000");
+			fail("BadParameterException was not thrown");
+		} catch (BadParameterException e) {
+			assertEquals("limit must be between 1 and 1000. User provided 100000", e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.mariadb.jdbc.UrlParser;
+import org.mariadb.jdbc.util.Options;
+
+import com.zaxxer.hikari.HikariConfig;
+
+public class ConnectionUtilTest {
+
+	private static int countDrivers() {
+		return Collections.list(DriverManager.getDrivers()).size();
+	}
+
+	@Test
+	public void test_registerDriver_DriverListStaysConstant() {
+		ConnectionUtil.registerDriver();
+		int expected = countDrivers();
+		ConnectionUtil.registerDriver();
+		ConnectionUtil.registerDriver();
+		assertEquals(expected, countDrivers());
+	}
+
+	@Test
+	public void test_registerDriver_MariaDBDriverRegisteredOnce() {
+		ConnectionUtil.registerDriver();
+		ConnectionUtil.registerDriver();
+		int actual = 0;
+		for(Driver driver : Collections.list(DriverManager.getDrivers())) {
+			if(driver instanceof org.mariadb.jdbc.Driver) {
+				actual++;
+			}
+		}
+		assertEquals(1, actual);
+	}
+
+	@Test
+	public void test_connectionConfig_NoIssue() {
+		ConnectionConfig config = new ConnectionConfig("jdbc:mariadb://localhost:3306/project0", "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000);
+		assertEquals("jdbc:mariadb://localhost:3306/project0", config.getUrl());
+		assertEquals(10, config.getMaxPoolSize());
+	}
+
+	@Test
+	public void test_connectionConfig_MissingUrl() {
+		try {
+			new ConnectionConfig(null, "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000);
+			fail("IllegalArgumentException was not thrown");
+		} catch (IllegalArgumentException e) {
+			assertEquals("db_url must be set to connect to the database", e.getMessage());
+		}
+	}
+
+	@Test
+	public void test_connectionConfig_NotMariaDBUrl() {
+		try {
+			new ConnectionConfig("jdbc:postgresql://localhost/project0", "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000);
+			fail("IllegalArgumentException was not thrown");
+		} catch (IllegalArgumentException e) {
+			assertEquals("db_url must be a MariaDB JDBC url. Found jdbc:postgresql://localhost/project0", e.getMessage());
+		}
+	}
+
+	@Test
+	public void test_connectionConfig_MinIdleOverMaxPoolSize() {
+		try {
+			new ConnectionConfig("jdbc:mariadb://localhost:3306/project0", "user", "pass", 2, 5, 600000, 1800000, 30000, 5000, 60000);
+			fail("IllegalArgumentException was not thrown");
+		} catch (IllegalArgumentException e) {
+			assertEquals("db_pool_min_idle must be between 0 and db_pool_max_size. Found 5", e.getMessage());
+		}
+	}
+
+	@Test
+	public void test_connectionConfig_StatementCacheDefaults() {
+		ConnectionConfig config = new ConnectionConfig("jdbc:mariadb://localhost:3306/project0", "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000);
+		assertEquals(true, config.isServerPrepare());
+		assertEquals(250, config.getStatementCacheSize());
+	}
+
+	@Test
+	public void test_connectionConfig_NegativeStatementCache() {
+		try {
+			new ConnectionConfig("jdbc:mariadb://localhost:3306/project0", "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000, true, -1, 2048);
+			fail("IllegalArgumentException was not thrown");
+		} catch (IllegalArgumentException e) {
+			assertEquals("db_statement_cache_size can't be negative. Found -1", e.getMessage());
+		}
+	}
+
+	//parses the pool's properties the way the driver does when it connects, since some options switch others off
+	private static Options driverOptions(HikariConfig poolConfig) throws Exception {
+		return UrlParser.parse(poolConfig.getJdbcUrl(), poolConfig.getDataSourceProperties()).getOptions();
+	}
+
+	@Test
+	public void test_buildPoolConfig_ServerPrepareStaysOn() throws Exception {
+		ConnectionConfig config = new ConnectionConfig("jdbc:mariadb://localhost:3306/project0", "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000);
+		Options options = driverOptions(ConnectionUtil.buildPoolConfig(config));
+		assertTrue(options.useServerPrepStmts);
+		assertTrue(options.cachePrepStmts);
+		assertEquals(250, options.prepStmtCacheSize);
+		assertFalse(options.rewriteBatchedStatements);
+	}
+
+	@Test
+	public void test_buildPoolConfig_RewriteWouldTurnServerPrepareOff() throws Exception {
+		ConnectionConfig config = new ConnectionConfig("jdbc:mariadb://localhost:3306/project0", "user", "pass", 10, 2, 600000, 1800000, 30000, 5000, 60000);
+		HikariConfig poolConfig = ConnectionUtil.buildPoolConfig(config);
+		poolConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+		assertFalse(driverOptions(poolConfig).useServerPrepStmts);
+	}
+
+}
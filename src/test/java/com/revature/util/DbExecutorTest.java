@@ -0,0 +1,85 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.revature.exceptions.AccountNotFoundException;
+import com.revature.exceptions.ServerBusyException;
+
+public class DbExecutorTest {
+
+	@After
+	public void afterTest() {
+		DbExecutor.shutdown();
+	}
+
+	@Test
+	public void test_supply_FullQueueIsRejected() throws Exception {
+		DbExecutor.start(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> running = DbExecutor.supply(() -> {
+			release.await();
+			return "first";
+		});
+		CompletableFuture<String> queued = DbExecutor.supply(() -> "second");
+		try {
+			DbExecutor.supply(() -> "third");
+			fail("ServerBusyException was not thrown");
+		} catch (ServerBusyException e) {
+		}
+		assertTrue(DbExecutor.getStats().getRejectedCalls() > 0);
+		release.countDown();
+		assertEquals("first", running.get());
+		assertEquals("second", queued.get());
+	}
+
+	@Test
+	public void test_supply_CheckedExceptionReachesCaller() throws Exception {
+		DbExecutor.start(1, 1);
+		CompletableFuture<String> future = DbExecutor.supply(() -> {
+			throw new AccountNotFoundException("Account with ID 9 could not be found");
+		});
+		try {
+			future.get();
+			fail("ExecutionException was not thrown");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof AccountNotFoundException);
+		}
+	}
+
+	@Test
+	public void test_limited_BusyPermitsAreRejectedAfterWaiting() throws Exception {
+		DbExecutor.startLimiter(1, 50);
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try {
+				DbExecutor.limited(() -> {
+					holding.countDown();
+					release.await();
+					return null;
+				});
+			} catch (Exception e) {
+			}
+		});
+		holder.start();
+		holding.await();
+		try {
+			DbExecutor.limited(() -> "second");
+			fail("ServerBusyException was not thrown");
+		} catch (ServerBusyException e) {
+		}
+		release.countDown();
+		holder.join();
+		assertEquals("third", DbExecutor.limited(() -> "third"));
+	}
+
+}